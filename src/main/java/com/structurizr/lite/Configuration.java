@@ -8,6 +8,9 @@ import org.apache.commons.logging.LogFactory;
 
 import java.io.File;
 import java.io.FileReader;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
 
 public class Configuration {
@@ -27,6 +30,8 @@ public class Configuration {
     private static final String DEFAULT_AUTO_SAVE_INTERVAL_IN_MILLISECONDS = "5000";
     private static final String AUTO_REFRESH_INTERVAL_PROPERTY = "structurizr.autoRefreshInterval";
     private static final String DEFAULT_AUTO_REFRESH_INTERVAL_IN_MILLISECONDS = "0";
+    private static final String CHANGE_DETECTION_PROPERTY = "structurizr.changeDetection";
+    private static final String DEFAULT_CHANGE_DETECTION = "auto";
 
     private static final String REMOTE_WORKSPACE_API_URL_PROPERTY = "structurizr.remote.apiUrl";
     private static final String REMOTE_WORKSPACE_API_KEY_PROPERTY = "structurizr.remote.apiKey";
@@ -39,6 +44,32 @@ public class Configuration {
     private static final String C4_FRAMEWORK_ENABLED_PROPERTY = "structurizr.c4framework.enabled";
     private static final String C4_FRAMEWORK_AUTO_INCLUDE_PROPERTY = "structurizr.c4framework.autoInclude";
 
+    private static final String WORKSPACE_CACHE_MAX_ENTRIES_PROPERTY = "structurizr.cache.maxEntries";
+    private static final String DEFAULT_WORKSPACE_CACHE_MAX_ENTRIES = "32";
+    private static final String WORKSPACE_CACHE_MAX_SIZE_PROPERTY = "structurizr.cache.maxSize";
+    private static final String DEFAULT_WORKSPACE_CACHE_MAX_SIZE_IN_MEGABYTES = "64";
+
+    private static final String WRITE_BEHIND_PROPERTY = "structurizr.writeBehind";
+    private static final String DEFAULT_WRITE_BEHIND = "false";
+    private static final String LAYOUT_STORAGE_PROPERTY = "structurizr.layoutStorage";
+    private static final String DEFAULT_LAYOUT_STORAGE = "json";
+    private static final String COMPRESSION_PROPERTY = "structurizr.compression";
+    private static final String DEFAULT_COMPRESSION = "none";
+    private static final String LOAD_THREADS_PROPERTY = "structurizr.load.threads";
+    private static final String PARSE_THREADS_PROPERTY = "structurizr.parse.threads";
+    private static final String PARSE_QUEUE_DEPTH_PROPERTY = "structurizr.parse.queueDepth";
+    private static final String PARSE_TIMEOUT_PROPERTY = "structurizr.parse.timeout";
+    private static final String DEFAULT_PARSE_TIMEOUT_IN_SECONDS = "120";
+    private static final String SEARCH_THREADS_PROPERTY = "structurizr.search.threads";
+    private static final String DEFAULT_SEARCH_THREADS = "1";
+    private static final String SCRIPTING_WARM_UP_PROPERTY = "structurizr.scripting.warmUp";
+    private static final String DEFAULT_SCRIPTING_WARM_UP_LANGUAGES = "groovy"; // the other (larger) scripting runtimes are loaded on demand
+    private static final String HTTP_CACHE_MAX_AGE_PROPERTY = "structurizr.httpCache.maxAge";
+    private static final String DEFAULT_HTTP_CACHE_MAX_AGE_IN_SECONDS = "300";
+    private static final String HTTP_CACHE_STALE_IF_ERROR_PROPERTY = "structurizr.httpCache.staleIfError";
+    private static final String DEFAULT_HTTP_CACHE_STALE_IF_ERROR_IN_SECONDS = "604800";
+    private static final String OFFLINE_PROPERTY = "structurizr.offline";
+
     public static final boolean PREVIEW_FEATURES = false;
 
     private File dataDirectory;
@@ -197,6 +228,10 @@ public class Configuration {
         return Integer.parseInt(getConfigurationParameter(AUTO_REFRESH_INTERVAL_PROPERTY, DEFAULT_AUTO_REFRESH_INTERVAL_IN_MILLISECONDS));
     }
 
+    public String getChangeDetection() {
+        return getConfigurationParameter(CHANGE_DETECTION_PROPERTY, DEFAULT_CHANGE_DETECTION).toLowerCase();
+    }
+
     public boolean isEditable() {
         return Boolean.parseBoolean(getConfigurationParameter(EDITABLE_PROPERTY, "true"));
     }
@@ -209,6 +244,76 @@ public class Configuration {
         return Boolean.parseBoolean(getConfigurationParameter(C4_FRAMEWORK_AUTO_INCLUDE_PROPERTY, "true"));
     }
 
+    public int getWorkspaceCacheMaxEntries() {
+        return Integer.parseInt(getConfigurationParameter(WORKSPACE_CACHE_MAX_ENTRIES_PROPERTY, DEFAULT_WORKSPACE_CACHE_MAX_ENTRIES));
+    }
+
+    public long getWorkspaceCacheMaxSize() {
+        return Long.parseLong(getConfigurationParameter(WORKSPACE_CACHE_MAX_SIZE_PROPERTY, DEFAULT_WORKSPACE_CACHE_MAX_SIZE_IN_MEGABYTES)) * 1024 * 1024;
+    }
+
+    public boolean isWriteBehindEnabled() {
+        // off by default - with write-behind, the workspace JSON file is briefly stale after a save
+        return Boolean.parseBoolean(getConfigurationParameter(WRITE_BEHIND_PROPERTY, DEFAULT_WRITE_BEHIND));
+    }
+
+    public String getLayoutStorage() {
+        return getConfigurationParameter(LAYOUT_STORAGE_PROPERTY, DEFAULT_LAYOUT_STORAGE).toLowerCase();
+    }
+
+    public String getCompression() {
+        return getConfigurationParameter(COMPRESSION_PROPERTY, DEFAULT_COMPRESSION).toLowerCase();
+    }
+
+    public int getWorkspaceLoadThreads() {
+        // loading is a mix of file I/O and parsing, so by default use more threads than there are cores
+        String defaultLoadThreads = "" + (Runtime.getRuntime().availableProcessors() * 2);
+        return Math.max(1, Integer.parseInt(getConfigurationParameter(LOAD_THREADS_PROPERTY, defaultLoadThreads)));
+    }
+
+    public int getDslParseThreads() {
+        String defaultParseThreads = "" + Runtime.getRuntime().availableProcessors();
+        return Math.max(1, Integer.parseInt(getConfigurationParameter(PARSE_THREADS_PROPERTY, defaultParseThreads)));
+    }
+
+    public int getDslParseQueueDepth() {
+        // by default, there's room for a parse from every loader thread (interactive and warm-up) to be queued
+        String defaultParseQueueDepth = "" + (getWorkspaceLoadThreads() + getDslParseThreads());
+        return Math.max(1, Integer.parseInt(getConfigurationParameter(PARSE_QUEUE_DEPTH_PROPERTY, defaultParseQueueDepth)));
+    }
+
+    public Duration getDslParseTimeout() {
+        return Duration.ofSeconds(Long.parseLong(getConfigurationParameter(PARSE_TIMEOUT_PROPERTY, DEFAULT_PARSE_TIMEOUT_IN_SECONDS)));
+    }
+
+    public int getSearchThreads() {
+        // the index is usually small, so segments are only searched in parallel if configured
+        return Math.max(1, Integer.parseInt(getConfigurationParameter(SEARCH_THREADS_PROPERTY, DEFAULT_SEARCH_THREADS)));
+    }
+
+    public List<String> getScriptingWarmUpLanguages() {
+        List<String> languages = new ArrayList<>();
+        for (String language : getConfigurationParameter(SCRIPTING_WARM_UP_PROPERTY, DEFAULT_SCRIPTING_WARM_UP_LANGUAGES).split(",")) {
+            if (!language.isBlank()) {
+                languages.add(language.trim());
+            }
+        }
+
+        return languages;
+    }
+
+    public Duration getHttpCacheMaxAge() {
+        return Duration.ofSeconds(Long.parseLong(getConfigurationParameter(HTTP_CACHE_MAX_AGE_PROPERTY, DEFAULT_HTTP_CACHE_MAX_AGE_IN_SECONDS)));
+    }
+
+    public Duration getHttpCacheStaleIfError() {
+        return Duration.ofSeconds(Long.parseLong(getConfigurationParameter(HTTP_CACHE_STALE_IF_ERROR_PROPERTY, DEFAULT_HTTP_CACHE_STALE_IF_ERROR_IN_SECONDS)));
+    }
+
+    public boolean isOffline() {
+        return Boolean.parseBoolean(getConfigurationParameter(OFFLINE_PROPERTY, "false"));
+    }
+
     private String getEnvironmentVariable(String name) {
         return getEnvironmentVariable(name, null);
     }
@@ -131,24 +131,6 @@ public class StructurizrLite extends SpringBootServletInitializer {
 		log.info("Auto-refresh interval: " + Configuration.getInstance().getAutoRefreshInterval() + "ms");
 		log.info("Preview features: " + Configuration.PREVIEW_FEATURES);
 
-		try {
-			ProcessBuilder processBuilder = new ProcessBuilder();
-			processBuilder.command("dot", "-V");
-			Process process = processBuilder.start();
-			int exitCode = process.waitFor();
-
-			String input = new String(process.getInputStream().readAllBytes());
-			String error = new String(process.getErrorStream().readAllBytes());
-			Configuration.getInstance().setGraphvizEnabled(exitCode == 0);
-
-			log.debug("Running: dot -V");
-			log.debug("stdout: " + input);
-			log.debug("stderr: " + error);
-		} catch (Exception e) {
-			log.warn(e.getMessage());
-		}
-		log.info("Graphviz (dot): " + Configuration.getInstance().isGraphvizEnabled());
-
 		if (Configuration.getInstance().isSingleWorkspace()) {
 			try {
 				long workspaceId = Configuration.getInstance().getRemoteWorkspaceId();
@@ -31,6 +31,10 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 @org.springframework.stereotype.Component
 class ApacheLuceneSearchComponentImpl implements SearchComponent {
@@ -53,8 +57,17 @@ class ApacheLuceneSearchComponentImpl implements SearchComponent {
     private static final String ASCIIDOC_SECTION_HEADING = "== ";
     private static final String NEWLINE = "\n";
 
+    // the index is refreshed at least this often, and within the minimum when a search is waiting for an update
+    private static final double MAXIMUM_STALENESS_IN_SECONDS = 1.0;
+    private static final double MINIMUM_STALENESS_IN_SECONDS = 0.01;
+    private static final int MAXIMUM_WAIT_FOR_REFRESH_IN_MILLISECONDS = 1000;
+
     private final File indexDirectory;
     private IndexWriter indexWriter;
+    private SearcherManager searcherManager;
+    private ControlledRealTimeReopenThread<IndexSearcher> reopenThread;
+    private ExecutorService searchExecutor;
+    private final AtomicLong indexedGeneration = new AtomicLong();
 
     ApacheLuceneSearchComponentImpl() {
         indexDirectory = new File(Configuration.getInstance().getWorkDirectory(), INDEX_DIRECTORY_NAME);
@@ -84,36 +97,71 @@ class ApacheLuceneSearchComponentImpl implements SearchComponent {
         try {
             Directory dir = FSDirectory.open(indexDirectory.toPath());
             indexWriter = new IndexWriter(dir, iwc);
+
+            // searches are served from near-real-time readers opened from the writer, rather than from the directory
+            searcherManager = new SearcherManager(indexWriter, createSearcherFactory());
+            reopenThread = new ControlledRealTimeReopenThread<>(indexWriter, searcherManager, MAXIMUM_STALENESS_IN_SECONDS, MINIMUM_STALENESS_IN_SECONDS);
+            reopenThread.setName("search-index-refresh");
+            reopenThread.setDaemon(true);
+            reopenThread.start();
         } catch (IOException e) {
             log.error(e);
         }
     }
 
+    private SearcherFactory createSearcherFactory() {
+        int threads = Configuration.getInstance().getSearchThreads();
+        if (threads <= 1) {
+            return new SearcherFactory();
+        }
+
+        // search the index segments in parallel
+        AtomicInteger threadNumber = new AtomicInteger();
+        searchExecutor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "search-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        return new SearcherFactory() {
+            @Override
+            public IndexSearcher newSearcher(IndexReader reader, IndexReader previousReader) {
+                return new IndexSearcher(reader, searchExecutor);
+            }
+        };
+    }
+
     @PreDestroy
     public void stop() {
+        if (reopenThread != null) {
+            reopenThread.close();
+        }
+
         try {
-            if (indexWriter != null) {
-                indexWriter.close();
+            if (searcherManager != null) {
+                searcherManager.close();
             }
         } catch (IOException e) {
             log.warn(e);
         }
-    }
 
-    private void delete(long workspaceId) {
+        if (searchExecutor != null) {
+            searchExecutor.shutdownNow();
+        }
+
         try {
-            Term workspaceIdTerm = new Term(WORKSPACE_KEY, toString(workspaceId));
-            indexWriter.deleteDocuments(workspaceIdTerm);
-        } catch (Exception e) {
-            e.printStackTrace();
-            log.error(e);
+            if (indexWriter != null) {
+                indexWriter.close();
+            }
+        } catch (IOException e) {
+            log.warn(e);
         }
     }
 
     @Override
     public void index(Workspace workspace) {
         try {
-            delete(workspace.getId());
+            List<Document> documents = new ArrayList<>();
 
             Document doc = new Document();
             doc.add(new StoredField(URL_KEY, calculateUrlPrefix(workspace)));
@@ -122,44 +170,46 @@ class ApacheLuceneSearchComponentImpl implements SearchComponent {
             doc.add(new StoredField(NAME_KEY, workspace.getName()));
             doc.add(new StoredField(DESCRIPTION_KEY, workspace.getDescription()));
             doc.add(new TextField(CONTENT_KEY, appendAll(workspace.getName(), workspace.getDescription()), Field.Store.NO));
-            indexWriter.addDocument(doc);
+            documents.add(doc);
 
             for (CustomView view : workspace.getViews().getCustomViews()) {
-                index(workspace, view, indexWriter);
+                index(workspace, view, documents);
             }
             for (SystemLandscapeView view : workspace.getViews().getSystemLandscapeViews()) {
-                index(workspace, view, indexWriter);
+                index(workspace, view, documents);
             }
             for (SystemContextView view : workspace.getViews().getSystemContextViews()) {
-                index(workspace, view, indexWriter);
+                index(workspace, view, documents);
             }
             for (ContainerView view : workspace.getViews().getContainerViews()) {
-                index(workspace, view, indexWriter);
+                index(workspace, view, documents);
             }
             for (ComponentView view : workspace.getViews().getComponentViews()) {
-                index(workspace, view, indexWriter);
+                index(workspace, view, documents);
             }
             for (DynamicView view : workspace.getViews().getDynamicViews()) {
-                index(workspace, view, indexWriter);
+                index(workspace, view, documents);
             }
             for (DeploymentView view : workspace.getViews().getDeploymentViews()) {
-                index(workspace, view, indexWriter);
+                index(workspace, view, documents);
             }
 
-            indexDocumentationAndDecisions(workspace, null, workspace.getDocumentation(), indexWriter);
+            indexDocumentationAndDecisions(workspace, null, workspace.getDocumentation(), documents);
             for (SoftwareSystem softwareSystem : workspace.getModel().getSoftwareSystems()) {
-                indexDocumentationAndDecisions(workspace, softwareSystem, softwareSystem.getDocumentation(), indexWriter);
+                indexDocumentationAndDecisions(workspace, softwareSystem, softwareSystem.getDocumentation(), documents);
 
                 for (Container container : softwareSystem.getContainers()) {
-                    indexDocumentationAndDecisions(workspace, container, container.getDocumentation(), indexWriter);
+                    indexDocumentationAndDecisions(workspace, container, container.getDocumentation(), documents);
 
                     for (Component component : container.getComponents()) {
-                        indexDocumentationAndDecisions(workspace, component, component.getDocumentation(), indexWriter);
+                        indexDocumentationAndDecisions(workspace, component, component.getDocumentation(), documents);
                     }
                 }
             }
 
-            indexWriter.commit();
+            // replace the workspace's documents atomically, so a refresh can't see the workspace half-indexed
+            Term workspaceIdTerm = new Term(WORKSPACE_KEY, toString(workspace.getId()));
+            indexedGeneration.accumulateAndGet(indexWriter.updateDocuments(workspaceIdTerm, documents), Math::max);
         } catch (Exception e) {
             log.error(e);
         }
@@ -173,7 +223,7 @@ class ApacheLuceneSearchComponentImpl implements SearchComponent {
         }
     }
 
-    private void index(Workspace workspace, ModelView view, IndexWriter indexWriter) throws Exception {
+    private void index(Workspace workspace, ModelView view, List<Document> documents) throws Exception {
         Document doc = new Document();
         doc.add(new StoredField(URL_KEY, calculateUrlPrefix(workspace) + DIAGRAMS_PATH + "#" + view.getKey()));
         doc.add(new TextField(WORKSPACE_KEY, toString(workspace.getId()), Field.Store.YES));
@@ -242,7 +292,7 @@ class ApacheLuceneSearchComponentImpl implements SearchComponent {
 
         doc.add(new TextField(CONTENT_KEY, content.toString(), Field.Store.NO));
 
-        indexWriter.addDocument(doc);
+        documents.add(doc);
     }
 
     private String indexElementBasics(Element element) {
@@ -301,22 +351,22 @@ class ApacheLuceneSearchComponentImpl implements SearchComponent {
         return content.toString();
     }
 
-    private void indexDocumentationAndDecisions(Workspace workspace, Element element, Documentation documentation, IndexWriter indexWriter) throws Exception {
+    private void indexDocumentationAndDecisions(Workspace workspace, Element element, Documentation documentation, List<Document> documents) throws Exception {
         if (documentation != null) {
             StringBuilder documentationContent = new StringBuilder();
             for (Section section : documentation.getSections()) {
                 documentationContent.append(section.getContent());
                 documentationContent.append(NEWLINE);
             }
-            indexDocumentation(workspace, element, documentationContent.toString(), indexWriter);
+            indexDocumentation(workspace, element, documentationContent.toString(), documents);
 
             for (Decision decision : documentation.getDecisions()) {
-                indexDecision(workspace, element, decision, indexWriter);
+                indexDecision(workspace, element, decision, documents);
             }
         }
     }
 
-    private void indexDocumentation(Workspace workspace, Element element, String documentationContent, IndexWriter indexWriter) throws Exception {
+    private void indexDocumentation(Workspace workspace, Element element, String documentationContent, List<Document> documents) throws Exception {
         // split the entire documentation content up into sections, each of which is defined by a ## or == heading.
         String title = "";
         StringBuilder content = new StringBuilder();
@@ -325,7 +375,7 @@ class ApacheLuceneSearchComponentImpl implements SearchComponent {
 
         for (String line : lines) {
             if (line.startsWith(MARKDOWN_SECTION_HEADING) || line.startsWith(ASCIIDOC_SECTION_HEADING)) {
-                indexDocumentationSection(title, content.toString(), sectionNumber, workspace, element, indexWriter);
+                indexDocumentationSection(title, content.toString(), sectionNumber, workspace, element, documents);
                 title = line.substring(MARKDOWN_SECTION_HEADING.length()-1).trim();
                 content = new StringBuilder();
                 sectionNumber++;
@@ -336,11 +386,11 @@ class ApacheLuceneSearchComponentImpl implements SearchComponent {
         }
 
         if (content.length() > 0) {
-            indexDocumentationSection(title, content.toString(), sectionNumber, workspace, element, indexWriter);
+            indexDocumentationSection(title, content.toString(), sectionNumber, workspace, element, documents);
         }
     }
 
-    private void indexDocumentationSection(String title, String content, int sectionNumber, Workspace workspace, Element element, IndexWriter indexWriter) throws Exception {
+    private void indexDocumentationSection(String title, String content, int sectionNumber, Workspace workspace, Element element, List<Document> documents) throws Exception {
         Document doc = new Document();
 
         doc.add(new StoredField(URL_KEY, calculateUrlPrefix(workspace) + DOCUMENTATION_PATH + calculateUrlForSection(element, sectionNumber)));
@@ -361,10 +411,10 @@ class ApacheLuceneSearchComponentImpl implements SearchComponent {
         }
         doc.add(new StoredField(DESCRIPTION_KEY, ""));
         doc.add(new TextField(CONTENT_KEY, appendAll(title, content.toString()), Field.Store.NO));
-        indexWriter.addDocument(doc);
+        documents.add(doc);
     }
 
-    private void indexDecision(Workspace workspace, Element element, Decision decision, IndexWriter indexWriter) throws Exception {
+    private void indexDecision(Workspace workspace, Element element, Decision decision, List<Document> documents) throws Exception {
         Document doc = new Document();
 
         doc.add(new StoredField(URL_KEY, calculateUrlPrefix(workspace) + DECISIONS_PATH + calculateUrlForDecision(element, decision)));
@@ -379,7 +429,7 @@ class ApacheLuceneSearchComponentImpl implements SearchComponent {
 
         doc.add(new StoredField(DESCRIPTION_KEY, decision.getStatus()));
         doc.add(new TextField(CONTENT_KEY, appendAll(decision.getTitle(), decision.getContent(), decision.getStatus()), Field.Store.NO));
-        indexWriter.addDocument(doc);
+        documents.add(doc);
     }
 
     protected String calculateUrlForSection(Element element, int sectionNumber) throws Exception {
@@ -443,14 +493,20 @@ class ApacheLuceneSearchComponentImpl implements SearchComponent {
                 queryBuilder.add(new TermQuery(new Term(TYPE_KEY, type)), BooleanClause.Occur.MUST);
             }
 
-            IndexReader reader = DirectoryReader.open(FSDirectory.open(indexDirectory.toPath()));
-            IndexSearcher searcher = new IndexSearcher(reader);
-
-            TopDocs topDocs = searcher.search(queryBuilder.build(), 20);
+            // make sure anything indexed before this search is visible (this is usually the case already)
+            reopenThread.waitForGeneration(indexedGeneration.get(), MAXIMUM_WAIT_FOR_REFRESH_IN_MILLISECONDS);
 
             List<Document> documents = new ArrayList<>();
-            for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
-                documents.add(searcher.doc(scoreDoc.doc));
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                TopDocs topDocs = searcher.search(queryBuilder.build(), 20);
+
+                StoredFields storedFields = searcher.storedFields();
+                for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+                    documents.add(storedFields.document(scoreDoc.doc));
+                }
+            } finally {
+                searcherManager.release(searcher);
             }
 
             for (Document doc : documents) {
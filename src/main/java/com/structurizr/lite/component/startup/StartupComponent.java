@@ -0,0 +1,15 @@
+package com.structurizr.lite.component.startup;
+
+/**
+ * Gets Structurizr Lite ready to serve requests (Graphviz detection, C4 framework extraction,
+ * workspace parsing and search indexing), and reports on progress.
+ */
+public interface StartupComponent {
+
+    void start();
+
+    boolean isReady();
+
+    String getStatus();
+
+}
@@ -0,0 +1,214 @@
+package com.structurizr.lite.component.startup;
+
+import com.structurizr.lite.Configuration;
+import com.structurizr.lite.component.workspace.C4FrameworkService;
+import com.structurizr.lite.component.workspace.WorkspaceComponent;
+import jakarta.annotation.PreDestroy;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the startup tasks concurrently on a bounded thread pool, once the application is ready.
+ * Structurizr Lite is reported as ready once all tasks have finished, whether or not they succeeded.
+ */
+@Component
+class StartupComponentImpl implements StartupComponent {
+
+    private static final Log log = LogFactory.getLog(StartupComponentImpl.class);
+
+    private static final String GRAPHVIZ_TASK = "graphviz";
+    private static final String C4_FRAMEWORK_TASK = "c4framework";
+    private static final String SCRIPTING_TASK = "scripting";
+    private static final String WORKSPACES_TASK = "workspaces";
+
+    // a trivial script, valid in all of the supported scripting languages
+    private static final String WARM_UP_SCRIPT = "1 + 1";
+
+    private static final String PENDING = "pending";
+    private static final String RUNNING = "running";
+    private static final String DONE = "done";
+    private static final String FAILED = "failed";
+
+    private final WorkspaceComponent workspaceComponent;
+    private final C4FrameworkService c4FrameworkService;
+
+    private final Map<String, String> tasks = new LinkedHashMap<>();
+    private final AtomicInteger numberOfWorkspacesLoaded = new AtomicInteger();
+    private volatile int numberOfWorkspaces = 0;
+    private volatile boolean ready = false;
+
+    private ExecutorService executorService;
+
+    StartupComponentImpl(WorkspaceComponent workspaceComponent, C4FrameworkService c4FrameworkService) {
+        this.workspaceComponent = workspaceComponent;
+        this.c4FrameworkService = c4FrameworkService;
+
+        tasks.put(GRAPHVIZ_TASK, PENDING);
+        tasks.put(C4_FRAMEWORK_TASK, PENDING);
+        tasks.put(SCRIPTING_TASK, PENDING);
+        tasks.put(WORKSPACES_TASK, PENDING);
+    }
+
+    @Override
+    public synchronized void start() {
+        if (executorService != null) {
+            return;
+        }
+
+        // one thread per task - workspaces are loaded in parallel by the workspace component
+        AtomicInteger threadNumber = new AtomicInteger();
+        executorService = new ThreadPoolExecutor(tasks.size(), tasks.size(), 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread thread = new Thread(r, "startup-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        long startTime = System.currentTimeMillis();
+        CompletableFuture.allOf(
+                run(GRAPHVIZ_TASK, this::detectGraphviz),
+                run(C4_FRAMEWORK_TASK, this::extractC4Framework),
+                run(SCRIPTING_TASK, this::warmUpScriptEngines),
+                run(WORKSPACES_TASK, this::loadWorkspaces)
+        ).whenComplete((result, throwable) -> {
+            ready = true;
+            executorService.shutdown();
+            log.info("Ready in " + (System.currentTimeMillis() - startTime) + "ms");
+        });
+    }
+
+    /**
+     * Starts once the application is ready, whether it's running standalone or deployed as a WAR file.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        start();
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (executorService != null) {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Override
+    public String getStatus() {
+        StringBuilder buf = new StringBuilder();
+        synchronized (tasks) {
+            for (String task : tasks.keySet()) {
+                buf.append(task);
+                buf.append(": ");
+                buf.append(tasks.get(task));
+                if (WORKSPACES_TASK.equals(task) && RUNNING.equals(tasks.get(task))) {
+                    buf.append(" (");
+                    buf.append(numberOfWorkspacesLoaded.get());
+                    buf.append("/");
+                    buf.append(numberOfWorkspaces);
+                    buf.append(")");
+                }
+                buf.append("\n");
+            }
+        }
+
+        return buf.toString();
+    }
+
+    private CompletableFuture<Void> run(String task, Runnable runnable) {
+        return CompletableFuture.runAsync(() -> {
+            setStatus(task, RUNNING);
+            try {
+                runnable.run();
+                setStatus(task, DONE);
+            } catch (Exception e) {
+                setStatus(task, FAILED);
+                log.warn("Startup task " + task + " failed: " + e.getMessage());
+            }
+        }, executorService);
+    }
+
+    private void setStatus(String task, String status) {
+        synchronized (tasks) {
+            tasks.put(task, status);
+        }
+    }
+
+    private void detectGraphviz() {
+        try {
+            ProcessBuilder processBuilder = new ProcessBuilder();
+            processBuilder.command("dot", "-V");
+            Process process = processBuilder.start();
+            int exitCode = process.waitFor();
+
+            String input = new String(process.getInputStream().readAllBytes());
+            String error = new String(process.getErrorStream().readAllBytes());
+            Configuration.getInstance().setGraphvizEnabled(exitCode == 0);
+
+            log.debug("Running: dot -V");
+            log.debug("stdout: " + input);
+            log.debug("stderr: " + error);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn(e.getMessage());
+        }
+        log.info("Graphviz (dot): " + Configuration.getInstance().isGraphvizEnabled());
+    }
+
+    private void extractC4Framework() {
+        if (Configuration.getInstance().isC4FrameworkEnabled()) {
+            c4FrameworkService.extractFrameworkResources();
+        }
+    }
+
+    private void warmUpScriptEngines() {
+        // gets the one-off costs (e.g. loading the runtime, and the Kotlin compiler's first compile) out of the way
+        // before a parse needs them - for pooled runtimes, the warmed-up engine is then reused by the first !script
+        ScriptEngineManager scriptEngineManager = new ScriptEngineManager();
+        for (String extension : Configuration.getInstance().getScriptingWarmUpLanguages()) {
+            long startTime = System.currentTimeMillis();
+            try {
+                ScriptEngine scriptEngine = scriptEngineManager.getEngineByExtension(extension);
+                if (scriptEngine == null) {
+                    log.debug("No script engine for ." + extension + " files");
+                    continue;
+                }
+
+                scriptEngine.eval(WARM_UP_SCRIPT);
+                log.debug("Warmed up script engine for ." + extension + " files in " + (System.currentTimeMillis() - startTime) + "ms");
+            } catch (Throwable t) {
+                log.warn("Could not warm up script engine for ." + extension + " files: " + t.getMessage());
+            }
+        }
+    }
+
+    private void loadWorkspaces() {
+        Set<Long> workspaceIds = workspaceComponent.getWorkspaceIds();
+        numberOfWorkspaces = workspaceIds.size();
+
+        // loading a workspace also adds it to the search index
+        workspaceComponent.warmUp(workspaceIds, workspaceId -> numberOfWorkspacesLoaded.incrementAndGet());
+        log.info("Loaded " + numberOfWorkspaces + " workspace(s)");
+    }
+
+}
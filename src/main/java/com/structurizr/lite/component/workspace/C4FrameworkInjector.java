@@ -0,0 +1,176 @@
+package com.structurizr.lite.component.workspace;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+
+/**
+ * A single-pass scanner that copies workspace DSL from a reader to a writer, inserting the C4 framework
+ * blocks straight after the braces that open the top-level model and views blocks. Brace depth is tracked outside
+ * of strings and comments, so the blocks are found regardless of how the rest of the DSL is laid out.
+ *
+ * The copy is abandoned as soon as a line opting out of, or already including, the framework is found.
+ */
+class C4FrameworkInjector {
+
+    private static final Log log = LogFactory.getLog(C4FrameworkInjector.class);
+
+    static final String FRAMEWORK_MARKER = "!c4framework";
+    static final String OPT_OUT_MARKER = "!c4framework:disable";
+    static final String FRAMEWORK_INCLUDE = "c4framework/";
+
+    private static final String MODEL_KEYWORD = "model";
+    private static final String VIEWS_KEYWORD = "views";
+
+    enum Result {
+
+        INJECTED,
+        OPTED_OUT,
+        ALREADY_INCLUDED
+
+    }
+
+    private final String header;
+    private final String modelBlock;
+    private final String viewsBlock;
+
+    C4FrameworkInjector(String header, String modelBlock, String viewsBlock) {
+        this.header = header;
+        this.modelBlock = modelBlock;
+        this.viewsBlock = viewsBlock;
+    }
+
+    Result inject(Reader reader, Writer writer) throws IOException {
+        BufferedReader in = reader instanceof BufferedReader ? (BufferedReader)reader : new BufferedReader(reader);
+        writer.write(header);
+
+        int depth = 0;
+        boolean inBlockComment = false;
+        String keyword = null; // the top-level keyword waiting for its opening brace
+        boolean modelBlockInjected = false;
+        boolean viewsBlockInjected = false;
+
+        String line;
+        while ((line = in.readLine()) != null) {
+            if (line.contains(OPT_OUT_MARKER)) {
+                return Result.OPTED_OUT;
+            }
+
+            if (line.contains(FRAMEWORK_MARKER) || line.contains(FRAMEWORK_INCLUDE)) {
+                return Result.ALREADY_INCLUDED;
+            }
+
+            int written = 0; // how much of the line has been written
+            boolean inString = false;
+            int length = line.length();
+            int i = 0;
+
+            if (!inBlockComment) {
+                while (i < length && Character.isWhitespace(line.charAt(i))) {
+                    i++;
+                }
+
+                if (line.startsWith("#", i) || line.startsWith("//", i)) {
+                    // a single line comment
+                    i = length;
+                }
+            }
+
+            while (i < length) {
+                char c = line.charAt(i);
+
+                if (inBlockComment) {
+                    if (line.startsWith("*/", i)) {
+                        inBlockComment = false;
+                        i += 2;
+                    } else {
+                        i++;
+                    }
+                } else if (inString) {
+                    if (c == '\\') {
+                        i += 2;
+                    } else {
+                        inString = c != '"';
+                        i++;
+                    }
+                } else if (c == '"') {
+                    inString = true;
+                    keyword = null;
+                    i++;
+                } else if (line.startsWith("/*", i)) {
+                    inBlockComment = true;
+                    i += 2;
+                } else if (c == '{') {
+                    String block = null;
+                    if (depth == 1 && MODEL_KEYWORD.equals(keyword)) {
+                        block = modelBlock;
+                        modelBlockInjected = true;
+                    } else if (depth == 1 && VIEWS_KEYWORD.equals(keyword)) {
+                        block = viewsBlock;
+                        viewsBlockInjected = true;
+                    }
+                    keyword = null;
+                    depth++;
+                    i++;
+
+                    if (block != null) {
+                        // the block may be closed on the same line (e.g. "views { }"), so the rest of the line goes after the injected block
+                        writer.write(line, written, i - written);
+                        writer.write('\n');
+                        writer.write(block);
+                        written = i;
+                    }
+                } else if (c == '}') {
+                    keyword = null;
+                    depth = Math.max(0, depth - 1);
+                    i++;
+                } else if (isWordCharacter(c)) {
+                    int start = i;
+                    while (i < length && isWordCharacter(line.charAt(i))) {
+                        i++;
+                    }
+
+                    keyword = null;
+                    if (depth == 1 && !modelBlockInjected && isWord(line, start, i, MODEL_KEYWORD)) {
+                        keyword = MODEL_KEYWORD;
+                    } else if (depth == 1 && !viewsBlockInjected && isWord(line, start, i, VIEWS_KEYWORD)) {
+                        keyword = VIEWS_KEYWORD;
+                    }
+                } else {
+                    i++;
+                }
+            }
+
+            if (written == 0) {
+                writer.write(line);
+                writer.write('\n');
+            } else if (!line.substring(written).isBlank()) {
+                writer.write(line, written, length - written);
+                writer.write('\n');
+            }
+        }
+
+        if (!modelBlockInjected) {
+            log.warn("Could not inject C4 framework archetypes - model block not found");
+        }
+
+        if (!viewsBlockInjected) {
+            log.warn("Could not inject C4 framework styles - views block not found");
+        }
+
+        return Result.INJECTED;
+    }
+
+    private static boolean isWordCharacter(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '-' || c == '.' || c == '!';
+    }
+
+    private static boolean isWord(String line, int start, int end, String word) {
+        return end - start == word.length() && line.startsWith(word, start);
+    }
+
+}
@@ -1,5 +1,7 @@
 package com.structurizr.lite.component.workspace;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.structurizr.lite.Configuration;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -7,12 +9,20 @@ import org.springframework.core.io.Resource;
 import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
 import org.springframework.core.io.support.ResourcePatternResolver;
 import org.springframework.stereotype.Service;
+import org.springframework.util.FileSystemUtils;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
@@ -26,21 +36,27 @@ public class C4FrameworkService {
     
     private static final Log log = LogFactory.getLog(C4FrameworkService.class);
     
-    private static final String FRAMEWORK_MARKER = "!c4framework";
-    private static final String OPT_OUT_MARKER = "!c4framework:disable";
     private static final String FRAMEWORK_PATH = "c4framework";
+    private static final String BUNDLE_PATH = FRAMEWORK_PATH + "/bundle";
+    private static final String MANIFEST_FILENAME = "manifest.json";
+    private static final String[] FRAMEWORK_DIRECTORIES = { "persons", "systems", "containers", "components", "styles", "terminology", "themes" };
+    private static final String[] ARCHETYPE_DIRECTORIES = { "persons", "systems", "containers", "components" };
     
     private volatile boolean frameworkExtracted = false;
+    private volatile String frameworkBundlePath;
+    private volatile String frameworkHash;
+    private volatile C4FrameworkInjector injector;
+    private final ObjectMapper objectMapper = new ObjectMapper();
     private final ResourcePatternResolver resolver = new PathMatchingResourcePatternResolver(getClass().getClassLoader());
     private final Map<String, List<String>> discoveredFiles = new ConcurrentHashMap<>();
     
     /**
-     * Checks if the workspace DSL file should have the framework injected.
+     * Checks if the framework should be automatically injected into workspace DSL files. Whether an individual
+     * file opts out of, or already includes, the framework is determined while injecting it.
      * 
-     * @param dslFile The DSL file to check
      * @return true if framework should be injected, false otherwise
      */
-    public boolean shouldInjectFramework(File dslFile) {
+    public boolean isAutoIncludeEnabled() {
         if (!Configuration.getInstance().isC4FrameworkEnabled()) {
             log.debug("C4 Framework is disabled globally");
             return false;
@@ -51,31 +67,16 @@ public class C4FrameworkService {
             return false;
         }
         
-        try {
-            String content = Files.readString(dslFile.toPath(), StandardCharsets.UTF_8);
-            
-            if (content.contains(OPT_OUT_MARKER)) {
-                log.debug("C4 Framework injection disabled for: " + dslFile.getName());
-                return false;
-            }
-            
-            if (content.contains("c4framework/") || content.contains(FRAMEWORK_MARKER)) {
-                log.debug("C4 Framework already included in: " + dslFile.getName());
-                return false;
-            }
-            
-            return true;
-        } catch (IOException e) {
-            log.warn("Could not read DSL file for framework injection check: " + e.getMessage());
-            return false;
-        }
+        return true;
     }
     
     /**
      * Extracts framework resources from classpath to the work directory.
      * This is necessary because Structurizr DSL parser doesn't support classpath includes.
+     * Extraction is checked against a manifest of resource hashes, so only new or changed
+     * files are written (e.g. after an upgrade), and files no longer bundled are removed.
      */
-    private void extractFrameworkResources() {
+    public void extractFrameworkResources() {
         if (frameworkExtracted) {
             return;
         }
@@ -88,25 +89,33 @@ public class C4FrameworkService {
             try {
                 File workDir = Configuration.getInstance().getWorkDirectory();
                 File frameworkDir = new File(workDir, FRAMEWORK_PATH);
+                File manifestFile = new File(frameworkDir, MANIFEST_FILENAME);
                 
-                if (frameworkDir.exists()) {
-                    frameworkExtracted = true;
-                    log.debug("C4 Framework resources already extracted to: " + frameworkDir.getAbsolutePath());
-                    return;
+                Map<String, String> previousManifest = readManifest(manifestFile);
+                Map<String, String> manifest = new TreeMap<>();
+                int numberOfFilesExtracted = 0;
+                for (String subdirectory : FRAMEWORK_DIRECTORIES) {
+                    numberOfFilesExtracted += extractResourceDirectory(subdirectory, previousManifest, manifest);
                 }
                 
-                log.info("Extracting C4 Framework resources to: " + frameworkDir.getAbsolutePath());
+                for (String path : previousManifest.keySet()) {
+                    if (!manifest.containsKey(path)) {
+                        Files.deleteIfExists(new File(frameworkDir, path).toPath());
+                        log.debug("Removed: " + path);
+                    }
+                }
                 
-                extractResourceDirectory("persons");
-                extractResourceDirectory("systems");
-                extractResourceDirectory("containers");
-                extractResourceDirectory("components");
-                extractResourceDirectory("styles");
-                extractResourceDirectory("terminology");
-                extractResourceDirectory("themes");
+                if (!manifest.equals(previousManifest)) {
+                    objectMapper.writeValue(manifestFile, manifest);
+                }
                 
+                frameworkHash = hash(manifest);
                 frameworkExtracted = true;
-                log.info("C4 Framework resources extracted successfully");
+                if (numberOfFilesExtracted > 0) {
+                    log.info("Extracted " + numberOfFilesExtracted + " C4 Framework resource(s) to: " + frameworkDir.getAbsolutePath());
+                } else {
+                    log.debug("C4 Framework resources are up to date in: " + frameworkDir.getAbsolutePath());
+                }
                 
             } catch (Exception e) {
                 log.error("Failed to extract C4 Framework resources: " + e.getMessage(), e);
@@ -115,9 +124,48 @@ public class C4FrameworkService {
     }
     
     /**
-     * Extracts all files from a framework subdirectory to the work directory.
+     * Gets a hash of the framework resources, which changes whenever the bundled framework changes (e.g. after an
+     * upgrade), so that anything derived from it (e.g. parsed workspace snapshots) can be invalidated.
+     * 
+     * @return The hash, "disabled" if the framework is disabled, or null if the framework resources couldn't be extracted
      */
-    private void extractResourceDirectory(String subdirectory) throws IOException {
+    public String getFrameworkHash() {
+        if (!Configuration.getInstance().isC4FrameworkEnabled()) {
+            return "disabled";
+        }
+        
+        extractFrameworkResources();
+        return frameworkHash;
+    }
+    
+    private String hash(Map<String, String> manifest) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        for (String path : manifest.keySet()) {
+            digest.update((path + "=" + manifest.get(path) + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+        
+        return HexFormat.of().formatHex(digest.digest());
+    }
+    
+    private Map<String, String> readManifest(File manifestFile) {
+        if (manifestFile.exists()) {
+            try {
+                return objectMapper.readValue(manifestFile, new TypeReference<TreeMap<String, String>>() {});
+            } catch (Exception e) {
+                log.warn("Ignoring C4 Framework manifest " + manifestFile.getAbsolutePath() + ": " + e.getMessage());
+            }
+        }
+        
+        // e.g. extracted by a version without a manifest, so every file is rewritten
+        return new TreeMap<>();
+    }
+    
+    /**
+     * Extracts the new or changed files from a framework subdirectory to the work directory.
+     * 
+     * @return The number of files written
+     */
+    private int extractResourceDirectory(String subdirectory, Map<String, String> previousManifest, Map<String, String> manifest) throws Exception {
         File workDir = Configuration.getInstance().getWorkDirectory();
         File targetDir = new File(workDir, FRAMEWORK_PATH + "/" + subdirectory);
         
@@ -125,104 +173,99 @@ public class C4FrameworkService {
             targetDir.mkdirs();
         }
         
+        int numberOfFilesExtracted = 0;
         List<String> files = getResourceFiles(subdirectory);
         
         for (String filename : files) {
-            String resourcePath = FRAMEWORK_PATH + "/" + subdirectory + "/" + filename;
+            String path = subdirectory + "/" + filename;
+            String resourcePath = FRAMEWORK_PATH + "/" + path;
             File targetFile = new File(targetDir, filename);
             
-            if (targetFile.exists()) {
-                continue;
-            }
-            
             Resource resource = resolver.getResource("classpath:" + resourcePath);
+            byte[] content;
             try (InputStream is = resource.getInputStream()) {
-                Files.copy(is, targetFile.toPath());
-                log.debug("Extracted: " + resourcePath + " -> " + targetFile.getAbsolutePath());
+                content = is.readAllBytes();
             } catch (IOException e) {
                 log.warn("Failed to extract resource: " + resourcePath, e);
+                continue;
             }
+            
+            String hash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+            manifest.put(path, hash);
+            
+            if (hash.equals(previousManifest.get(path)) && targetFile.exists()) {
+                continue;
+            }
+            
+            File tmpFile = new File(targetDir, "." + filename + ".tmp");
+            Files.write(tmpFile.toPath(), content);
+            Files.move(tmpFile.toPath(), targetFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            numberOfFilesExtracted++;
+            log.debug("Extracted: " + resourcePath + " -> " + targetFile.getAbsolutePath());
         }
+        
+        return numberOfFilesExtracted;
     }
     
     /**
      * Injects the C4 framework into the workspace DSL content.
      * 
      * @param workspaceDslContent The original workspace DSL content
-     * @return The DSL content with framework injected
+     * @return The DSL content with framework injected, or the original content if it opts out of, or already includes, the framework
      */
     public String injectFramework(String workspaceDslContent) {
-        extractFrameworkResources();
-        
-        StringBuilder injected = new StringBuilder();
-        
-        injected.append("// C4 Framework Auto-Injected\n");
-        injected.append("// To disable: add '!c4framework:disable' to your workspace file\n\n");
-        
-        String[] lines = workspaceDslContent.split("\n");
-        boolean inWorkspace = false;
-        boolean inModel = false;
-        boolean inViews = false;
-        boolean frameworkArchetypesInjected = false;
-        boolean frameworkStylesInjected = false;
-        int indentLevel = 0;
-        
-        for (int i = 0; i < lines.length; i++) {
-            String line = lines[i];
-            String trimmed = line.trim();
-            
-            if (trimmed.startsWith("workspace")) {
-                injected.append(line).append("\n");
-                inWorkspace = true;
-                continue;
-            }
-            
-            if (inWorkspace && trimmed.startsWith("model") && trimmed.contains("{")) {
-                injected.append(line).append("\n");
-                inModel = true;
-                
-                injected.append("        archetypes {\n");
-                injected.append(generateArchetypeIncludes());
-                injected.append("        }\n\n");
-                frameworkArchetypesInjected = true;
-                continue;
-            }
-            
-            if (inModel && trimmed.equals("}")) {
-                inModel = false;
-            }
-            
-            if (inWorkspace && !inModel && trimmed.startsWith("views") && trimmed.contains("{")) {
-                injected.append(line).append("\n");
-                inViews = true;
-                
-                injected.append("        styles {\n");
-                injected.append(generateStyleIncludes());
-                injected.append("            theme default\n");
-                injected.append("        }\n\n");
-                injected.append(generateTerminologyInclude());
-                injected.append(generateThemeReferences());
-                injected.append("\n");
-                frameworkStylesInjected = true;
-                continue;
-            }
-            
-            if (inViews && trimmed.equals("}")) {
-                inViews = false;
-            }
-            
-            injected.append(line).append("\n");
+        try {
+            StringWriter writer = new StringWriter();
+            return injectFramework(new StringReader(workspaceDslContent), writer) ? writer.toString() : workspaceDslContent;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
+    }
+    
+    /**
+     * Copies workspace DSL from the reader to the writer, injecting the C4 framework in a single pass.
+     * 
+     * @return true if the framework was injected, false if the DSL opts out of, or already includes, the framework (the output should be discarded)
+     */
+    public boolean injectFramework(Reader reader, Writer writer) throws IOException {
+        extractFrameworkResources();
         
-        if (!frameworkArchetypesInjected) {
-            log.warn("Could not inject C4 framework archetypes - model block not found");
+        C4FrameworkInjector.Result result = getInjector().inject(reader, writer);
+        if (result == C4FrameworkInjector.Result.OPTED_OUT) {
+            log.debug("C4 Framework injection disabled by " + C4FrameworkInjector.OPT_OUT_MARKER);
+        } else if (result == C4FrameworkInjector.Result.ALREADY_INCLUDED) {
+            log.debug("C4 Framework already included");
         }
         
-        if (!frameworkStylesInjected) {
-            log.warn("Could not inject C4 framework styles - views block not found");
+        return result == C4FrameworkInjector.Result.INJECTED;
+    }
+    
+    private C4FrameworkInjector getInjector() {
+        if (injector == null) {
+            synchronized (this) {
+                if (injector == null) {
+                    // the blocks only depend on the framework version, so are generated once
+                    String header = "// C4 Framework Auto-Injected\n" +
+                            "// To disable: add '" + C4FrameworkInjector.OPT_OUT_MARKER + "' to your workspace file\n\n";
+                    
+                    String modelBlock = "        archetypes {\n" +
+                            generateArchetypeIncludes() +
+                            "        }\n\n";
+                    
+                    String viewsBlock = "        styles {\n" +
+                            generateStyleIncludes() +
+                            "            theme default\n" +
+                            "        }\n\n" +
+                            generateTerminologyInclude() +
+                            generateThemeReferences() +
+                            "\n";
+                    
+                    injector = new C4FrameworkInjector(header, modelBlock, viewsBlock);
+                }
+            }
         }
         
-        return injected.toString();
+        return injector;
     }
     
     /**
@@ -232,6 +275,11 @@ public class C4FrameworkService {
         StringBuilder includes = new StringBuilder();
         String indent = "            ";
         
+        String bundlePath = getFrameworkBundlePath();
+        if (bundlePath != null) {
+            return indent + "!include " + bundlePath + "/archetypes.dsl\n";
+        }
+        
         try {
             includes.append(indent).append("// Person Archetypes\n");
             List<String> personFiles = getResourceFiles("persons");
@@ -275,6 +323,11 @@ public class C4FrameworkService {
         StringBuilder includes = new StringBuilder();
         String indent = "            ";
         
+        String bundlePath = getFrameworkBundlePath();
+        if (bundlePath != null) {
+            return indent + "!include " + bundlePath + "/styles.dsl\n";
+        }
+        
         try {
             List<String> styleFiles = getResourceFiles("styles");
             for (String file : styleFiles) {
@@ -295,6 +348,11 @@ public class C4FrameworkService {
         String indent = "        ";
         StringBuilder includes = new StringBuilder();
         
+        String bundlePath = getFrameworkBundlePath();
+        if (bundlePath != null) {
+            return indent + "!include " + bundlePath + "/terminology.dsl\n";
+        }
+        
         List<String> terminologyFiles = getResourceFiles("terminology");
         for (String file : terminologyFiles) {
             includes.append(indent).append("!include c4framework/terminology/")
@@ -322,6 +380,86 @@ public class C4FrameworkService {
         return indent + "themes " + themePaths + "\n";
     }
     
+    /**
+     * Gets the path (relative to the work directory) of the pre-expanded framework bundle, creating it if necessary.
+     * The bundle concatenates the framework archetypes, styles and terminology into one file each, so a parse
+     * opens three files rather than one per framework file. Bundles are stored in a directory named after their
+     * content hash, so a bundle is written once per framework version and shared by all workspaces.
+     * 
+     * @return The bundle path, or null if the bundle couldn't be created (individual includes are used instead)
+     */
+    private String getFrameworkBundlePath() {
+        if (frameworkBundlePath != null) {
+            return frameworkBundlePath;
+        }
+        
+        synchronized (this) {
+            if (frameworkBundlePath == null) {
+                try {
+                    frameworkBundlePath = createFrameworkBundle();
+                } catch (Exception e) {
+                    log.warn("Could not create C4 Framework bundle: " + e.getMessage());
+                    return null;
+                }
+            }
+            
+            return frameworkBundlePath;
+        }
+    }
+    
+    private String createFrameworkBundle() throws Exception {
+        Map<String, String> bundleFiles = new LinkedHashMap<>();
+        bundleFiles.put("archetypes.dsl", concatenateResourceFiles(ARCHETYPE_DIRECTORIES));
+        bundleFiles.put("styles.dsl", concatenateResourceFiles("styles"));
+        bundleFiles.put("terminology.dsl", concatenateResourceFiles("terminology"));
+        
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        for (String filename : bundleFiles.keySet()) {
+            digest.update(filename.getBytes(StandardCharsets.UTF_8));
+            digest.update(bundleFiles.get(filename).getBytes(StandardCharsets.UTF_8));
+        }
+        String hash = HexFormat.of().formatHex(digest.digest()).substring(0, 16);
+        
+        File bundlesDir = new File(Configuration.getInstance().getWorkDirectory(), BUNDLE_PATH);
+        File bundleDir = new File(bundlesDir, hash);
+        if (!bundleDir.exists()) {
+            File tmpDir = new File(bundlesDir, "." + hash + ".tmp");
+            tmpDir.mkdirs();
+            for (String filename : bundleFiles.keySet()) {
+                Files.writeString(new File(tmpDir, filename).toPath(), bundleFiles.get(filename), StandardCharsets.UTF_8);
+            }
+            Files.move(tmpDir.toPath(), bundleDir.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            log.info("Created C4 Framework bundle: " + bundleDir.getAbsolutePath());
+        }
+        
+        // remove bundles for previous framework versions
+        File[] bundleDirs = bundlesDir.listFiles();
+        if (bundleDirs != null) {
+            for (File dir : bundleDirs) {
+                if (!dir.getName().equals(hash)) {
+                    FileSystemUtils.deleteRecursively(dir);
+                }
+            }
+        }
+        
+        return BUNDLE_PATH + "/" + hash;
+    }
+    
+    private String concatenateResourceFiles(String... subdirectories) throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (String subdirectory : subdirectories) {
+            for (String filename : getResourceFiles(subdirectory)) {
+                Resource resource = resolver.getResource("classpath:" + FRAMEWORK_PATH + "/" + subdirectory + "/" + filename);
+                try (InputStream is = resource.getInputStream()) {
+                    content.append("// ").append(subdirectory).append("/").append(filename).append("\n");
+                    content.append(new String(is.readAllBytes(), StandardCharsets.UTF_8)).append("\n\n");
+                }
+            }
+        }
+        
+        return content.toString();
+    }
+    
     /**
      * Gets list of framework files in a subdirectory using dynamic classpath scanning.
      * Falls back to hardcoded list if scanning fails.
@@ -0,0 +1,30 @@
+package com.structurizr.lite.component.workspace;
+
+import com.structurizr.http.HttpClient;
+import com.structurizr.http.RemoteContent;
+
+import java.io.IOException;
+
+/**
+ * An HTTP client for the DSL parser that fetches remote content (e.g. !include URLs) via a RemoteContentCache.
+ */
+class CachingHttpClient extends HttpClient {
+
+    private final RemoteContentCache remoteContentCache;
+
+    CachingHttpClient(RemoteContentCache remoteContentCache) {
+        this.remoteContentCache = remoteContentCache;
+    }
+
+    @Override
+    public RemoteContent get(String url) {
+        try {
+            RemoteContentCache.Content content = remoteContentCache.get(url);
+
+            return new RemoteContent(content.getContent(), content.getContentType());
+        } catch (IOException e) {
+            throw new RuntimeException("Could not fetch " + url + ": " + e.getMessage(), e);
+        }
+    }
+
+}
@@ -0,0 +1,111 @@
+package com.structurizr.lite.component.workspace;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs DSL parses on a dedicated, bounded thread pool, so that a slow workspace (e.g. a runaway !script or
+ * a hanging remote include) can't tie up request threads. Each parse has a wall-clock timeout, after which
+ * it's cancelled. When all threads are busy and the queue is full, callers wait (up to the timeout) for space,
+ * rather than being rejected straight away.
+ */
+class DslParseExecutor {
+
+    private static final Log log = LogFactory.getLog(DslParseExecutor.class);
+
+    private final ThreadPoolExecutor executorService;
+    private final Semaphore permits; // one per thread and queue slot, which bounds the (otherwise unbounded) queue
+    private final Duration timeout;
+
+    DslParseExecutor(int threads, int queueDepth, Duration timeout) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executorService = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread thread = new Thread(r, "dsl-parser-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executorService.allowCoreThreadTimeOut(true);
+        this.permits = new Semaphore(threads + queueDepth);
+        this.timeout = timeout;
+    }
+
+    /**
+     * Runs the given parse, waiting for it to complete.
+     *
+     * @param description   a description of what's being parsed, for logging
+     * @param parse         the parse
+     * @return  the result of the parse
+     * @throws WorkspaceComponentException  if there's no room for the parse within the timeout, or it times out or is interrupted
+     * @throws Exception    if the parse fails
+     */
+    <T> T execute(String description, Callable<T> parse) throws Exception {
+        try {
+            if (!permits.tryAcquire(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                log.warn("Rejected parse of " + description + " - " + executorService.getActiveCount() + " parse(s) running, " + executorService.getQueue().size() + " queued");
+                throw new WorkspaceComponentException("Too many workspaces are being parsed, please try again later");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WorkspaceComponentException("Interrupted while parsing", e);
+        }
+
+        Future<T> future;
+        try {
+            future = executorService.submit(() -> {
+                try {
+                    return parse.call();
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // stopped
+            permits.release();
+            throw new WorkspaceComponentException("Too many workspaces are being parsed, please try again later");
+        }
+
+        try {
+            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // parsing doesn't check for interrupts everywhere, so the thread may stay busy for a while after this
+            cancel(future);
+            log.warn("Cancelled parse of " + description + " after " + timeout.toSeconds() + " second(s)");
+            throw new WorkspaceComponentException("Parsing did not complete within " + timeout.toSeconds() + " second(s)");
+        } catch (InterruptedException e) {
+            cancel(future);
+            Thread.currentThread().interrupt();
+            throw new WorkspaceComponentException("Interrupted while parsing", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception)e.getCause();
+            } else {
+                throw new WorkspaceComponentException(e.getCause().getMessage(), e.getCause());
+            }
+        }
+    }
+
+    private void cancel(Future<?> future) {
+        if (executorService.remove((Runnable)future)) {
+            // the parse hadn't started, so won't release its permit
+            permits.release();
+        }
+        future.cancel(true);
+    }
+
+    void stop() {
+        executorService.shutdownNow();
+    }
+
+}
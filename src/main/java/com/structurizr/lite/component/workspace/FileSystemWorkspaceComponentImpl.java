@@ -3,31 +3,51 @@ package com.structurizr.lite.component.workspace;
 import com.structurizr.Workspace;
 import com.structurizr.dsl.DslUtils;
 import com.structurizr.dsl.StructurizrDslParser;
-import com.structurizr.inspection.DefaultInspector;
 import com.structurizr.lite.Configuration;
 import com.structurizr.lite.component.search.SearchComponent;
 import com.structurizr.lite.domain.WorkspaceMetaData;
 import com.structurizr.lite.util.DateUtils;
 import com.structurizr.lite.util.Image;
+import com.structurizr.lite.util.Version;
 import com.structurizr.util.StringUtils;
 import com.structurizr.util.WorkspaceUtils;
 import com.structurizr.validation.WorkspaceScopeValidatorFactory;
+import com.structurizr.view.ModelView;
+import com.structurizr.view.View;
+import jakarta.annotation.PreDestroy;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.stereotype.Service;
 
+import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Base64;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HexFormat;
 import java.util.List;
-
-import static com.structurizr.lite.component.workspace.WorkspaceDirectory.parseWorkspaceId;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongConsumer;
 
 @Component
 class FileSystemWorkspaceComponentImpl implements WorkspaceComponent {
@@ -35,13 +55,35 @@ class FileSystemWorkspaceComponentImpl implements WorkspaceComponent {
     private static final Log log = LogFactory.getLog(FileSystemWorkspaceComponentImpl.class);
 
     private static final String IMAGES_DIRECTORY = "images";
+    private static final String C4_FRAMEWORK_DSL_FILENAME_PREFIX = "c4framework-workspace-";
+    private static final String REMOTE_CONTENT_CACHE_DIRECTORY_NAME = "remote";
+    private static final Duration REMOTE_CONTENT_TIMEOUT = Duration.ofSeconds(60);
+    private static final Duration PARSE_WAIT_MARGIN = Duration.ofSeconds(30);
+    private static final long WORKSPACE_CATALOG_SAVE_INTERVAL_IN_MILLISECONDS = 5000;
 
     private File dataDirectory;
     private String filename;
 
     private String error;
 
-    private long lastModifiedDate = 0;
+    private WorkspaceDirectoryIndex workspaceDirectoryIndex;
+    private WorkspaceChangeDetector workspaceChangeDetector;
+    private WorkspaceCatalog workspaceCatalog;
+    private WorkspaceWriteBehindQueue workspaceWriteBehindQueue;
+    private WorkspaceLoader workspaceLoader;
+    private WorkspaceLoader warmUpLoader;
+    private RemoteContentCache remoteContentCache;
+    private DslParseExecutor dslParseExecutor;
+    private volatile WorkspaceList workspaceList;
+
+    private final WorkspaceMetaDataReader workspaceMetaDataReader = new WorkspaceMetaDataReader();
+    private final WorkspaceSourceScanner workspaceSourceScanner = new WorkspaceSourceScanner();
+    private ParsedWorkspaceCache parsedWorkspaceCache;
+    private WorkspaceSnapshotStore workspaceSnapshotStore;
+    private final Map<String, CompletableFuture<Workspace>> parsesInProgress = new ConcurrentHashMap<>();
+    private final Map<Long, String> indexedContentHashes = new ConcurrentHashMap<>();
+    private final Map<Long, ReentrantLock> c4FrameworkDslLocks = new ConcurrentHashMap<>();
+    private final Map<Long, Object> viewLayoutLocks = new ConcurrentHashMap<>();
 
     private final SearchComponent searchComponent;
     private final C4FrameworkService c4FrameworkService;
@@ -72,9 +114,41 @@ class FileSystemWorkspaceComponentImpl implements WorkspaceComponent {
             Configuration.getInstance().getWorkDirectory().mkdirs();
         }
 
+        workspaceCatalog = new WorkspaceCatalog(Configuration.getInstance().getWorkDirectory());
+        workspaceCatalog.load();
+
+        parsedWorkspaceCache = new ParsedWorkspaceCache(
+                Configuration.getInstance().getWorkspaceCacheMaxEntries(),
+                Configuration.getInstance().getWorkspaceCacheMaxSize()
+        );
+
+        workspaceDirectoryIndex = new WorkspaceDirectoryIndex(dataDirectory);
+        workspaceDirectoryIndex.rebuild();
+
+        workspaceSnapshotStore = new WorkspaceSnapshotStore(Configuration.getInstance().getWorkDirectory(), getDslParserVersion(), getLiteVersion());
+
+        workspaceLoader = new WorkspaceLoader("workspace-loader", Configuration.getInstance().getWorkspaceLoadThreads());
+
+        // warm-up is limited by parsing, and has its own pool so that interactive bulk reads never queue behind it
+        warmUpLoader = new WorkspaceLoader("workspace-warm-up", Configuration.getInstance().getDslParseThreads());
+
+        remoteContentCache = new RemoteContentCache(
+                new File(Configuration.getInstance().getWorkDirectory(), REMOTE_CONTENT_CACHE_DIRECTORY_NAME),
+                Configuration.getInstance().getHttpCacheMaxAge(),
+                Configuration.getInstance().getHttpCacheStaleIfError(),
+                Configuration.getInstance().isOffline(),
+                REMOTE_CONTENT_TIMEOUT
+        );
+
+        dslParseExecutor = new DslParseExecutor(
+                Configuration.getInstance().getDslParseThreads(),
+                Configuration.getInstance().getDslParseQueueDepth(),
+                Configuration.getInstance().getDslParseTimeout()
+        );
+
         if (Configuration.getInstance().isSingleWorkspace()) {
             File dsl = new File(getDataDirectory(1), filename + ".dsl");
-            File json = new File(getDataDirectory(1), filename + ".json");
+            File json = getJsonFile(getDataDirectory(1));
 
             if (!dsl.exists() && !json.exists()) {
                 String defaultWorkspace = "workspace \"Name\" \"Description\" {\n\n    model {\n    }\n\n    views {\n    }\n\n}\n";
@@ -82,7 +156,96 @@ class FileSystemWorkspaceComponentImpl implements WorkspaceComponent {
             }
         }
 
-        lastModifiedDate = findLatestLastModifiedDate(dataDirectory);
+        if (Configuration.getInstance().isWriteBehindEnabled()) {
+            workspaceWriteBehindQueue = new WorkspaceWriteBehindQueue(
+                    Configuration.getInstance().getWorkDirectory(),
+                    this::getJsonFileToWrite,
+                    this::workspaceWritten
+            );
+            try {
+                workspaceWriteBehindQueue.start();
+            } catch (Exception e) {
+                log.warn("Could not start write-behind queue (" + e.getMessage() + ") - workspaces will be saved synchronously");
+                workspaceWriteBehindQueue = null;
+            }
+        }
+
+        workspaceChangeDetector = new WorkspaceChangeDetector(
+                dataDirectory,
+                filename,
+                Configuration.getInstance().isSingleWorkspace(),
+                Configuration.getInstance().getChangeDetection()
+        );
+        workspaceChangeDetector.setWorkspaceDirectoryListener(workspaceDirectoryIndex::update);
+        workspaceChangeDetector.start();
+
+        Thread cleanupThread = new Thread(this::deleteTemporaryDslFiles, "workspace-cleanup");
+        cleanupThread.setDaemon(true);
+        cleanupThread.start();
+    }
+
+    private void deleteTemporaryDslFiles() {
+        // previous versions wrote a new workspace-{random}.dsl file to the work directory for every parse
+        int count = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(Configuration.getInstance().getWorkDirectory().toPath(), "workspace-*.dsl")) {
+            for (Path file : files) {
+                if (Files.deleteIfExists(file)) {
+                    count++;
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Could not delete temporary DSL files: " + e.getMessage());
+        }
+
+        if (count > 0) {
+            log.info("Deleted " + count + " temporary DSL file(s) from " + Configuration.getInstance().getWorkDirectory().getAbsolutePath());
+        }
+    }
+
+    private static String getDslParserVersion() {
+        String version = StructurizrDslParser.class.getPackage().getImplementationVersion();
+        if (version == null) {
+            // e.g. when running from an IDE - use the location of the JAR file, which includes the version
+            try {
+                version = StructurizrDslParser.class.getProtectionDomain().getCodeSource().getLocation().toString();
+            } catch (Exception e) {
+                version = "unknown";
+            }
+        }
+
+        return version;
+    }
+
+    private static String getLiteVersion() {
+        Version version = new Version();
+        return Objects.toString(version.getBuildNumber(), "") + "/" + Objects.toString(version.getGitCommit(), "");
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (workspaceChangeDetector != null) {
+            workspaceChangeDetector.stop();
+        }
+
+        if (workspaceLoader != null) {
+            workspaceLoader.stop();
+        }
+
+        if (warmUpLoader != null) {
+            warmUpLoader.stop();
+        }
+
+        if (dslParseExecutor != null) {
+            dslParseExecutor.stop();
+        }
+
+        if (workspaceWriteBehindQueue != null) {
+            workspaceWriteBehindQueue.stop();
+        }
+
+        if (workspaceCatalog != null) {
+            workspaceCatalog.save();
+        }
     }
 
     private WorkspaceMetaData toWorkspaceMetadata(Workspace workspace) {
@@ -98,19 +261,7 @@ class FileSystemWorkspaceComponentImpl implements WorkspaceComponent {
         if (Configuration.getInstance().isSingleWorkspace()) {
             return dataDirectory;
         } else {
-            File directory = new File(dataDirectory, "" + workspaceId);
-            if (!directory.exists()) {
-                File[] files = dataDirectory.listFiles();
-                if (files != null) {
-                    for (File file : files) {
-                        if (file.isDirectory() && parseWorkspaceId(file.getName()) == workspaceId) {
-                            return file;
-                        }
-                    }
-                }
-            }
-
-            return directory;
+            return workspaceDirectoryIndex.get(workspaceId);
         }
     }
 
@@ -127,9 +278,10 @@ class FileSystemWorkspaceComponentImpl implements WorkspaceComponent {
     private Workspace loadWorkspace(long workspaceId, boolean preferJson) {
         File workspaceDirectory = getDataDirectory(workspaceId);
         File dslFile = new File(workspaceDirectory, filename + ".dsl");
-        File jsonFile = new File(workspaceDirectory, filename + ".json");
+        File jsonFile = getJsonFile(workspaceDirectory);
 
-        if (preferJson) {
+        // the JSON file isn't kept up to date for DSL workspaces when a sidecar layout file is being used
+        if (preferJson && !isLayoutStoredInSidecar(workspaceId)) {
             if (jsonFile.exists()) {
                 return loadWorkspaceFromJson(workspaceId, jsonFile);
             } else {
@@ -157,9 +309,20 @@ class FileSystemWorkspaceComponentImpl implements WorkspaceComponent {
     private Workspace loadWorkspaceFromJson(long workspaceId, File jsonFile) {
         Workspace workspace = null;
 
-        if (jsonFile.exists()) {
+        String pendingJson = workspaceWriteBehindQueue != null ? workspaceWriteBehindQueue.getPendingJson(workspaceId) : null;
+        if (pendingJson != null) {
             try {
-                workspace = WorkspaceUtils.loadWorkspaceFromJson(jsonFile);
+                workspace = WorkspaceUtils.fromJson(pendingJson);
+                workspace.setId(workspaceId);
+                error = workspaceWriteBehindQueue.getWriteError(workspaceId);
+            } catch (Exception e) {
+                workspace = null;
+                error = filename + ".json: " + e.getMessage();
+                log.error(e);
+            }
+        } else if (jsonFile.exists()) {
+            try {
+                workspace = WorkspaceJsonFile.load(jsonFile);
                 workspace.setId(workspaceId);
                 error = null;
             } catch (Exception e) {
@@ -173,55 +336,159 @@ class FileSystemWorkspaceComponentImpl implements WorkspaceComponent {
     }
 
     private Workspace loadWorkspaceFromDsl(long workspaceId, File dslFile, File jsonFile) {
-        Workspace workspace = null;
+        // the parsed workspace also depends on the bundled framework and the version of Lite that parsed it
+        String frameworkHash = c4FrameworkService.getFrameworkHash();
+        WorkspaceSource source = frameworkHash == null ? null : workspaceSourceScanner.scan(dslFile,
+                "c4framework.enabled=" + Configuration.getInstance().isC4FrameworkEnabled(),
+                "c4framework.autoInclude=" + Configuration.getInstance().isC4FrameworkAutoInclude(),
+                "c4framework=" + frameworkHash,
+                "lite=" + getLiteVersion());
+
+        String cacheKey = null;
+        String parseKey;
+        if (source != null) {
+            File layoutFile = isLayoutSidecarEnabled() ? getLayoutFile(workspaceId) : jsonFile;
+            cacheKey = getCacheKey(source, layoutFile);
+            Workspace workspace = parsedWorkspaceCache.get(workspaceId, cacheKey);
+            if (workspace != null) {
+                error = null;
+                return workspace;
+            }
+
+            parseKey = workspaceId + "/" + cacheKey;
+        } else {
+            // the workspace can't be cached (e.g. it includes remote content), so identify the version by the DSL file's timestamp instead
+            parseKey = workspaceId + "/lastModified=" + dslFile.lastModified();
+        }
+
+        // concurrent requests for the same version of a workspace share a single parse
+        CompletableFuture<Workspace> parse = new CompletableFuture<>();
+        CompletableFuture<Workspace> parseInProgress = parsesInProgress.putIfAbsent(parseKey, parse);
+        if (parseInProgress != null) {
+            return awaitParse(parseInProgress);
+        }
 
         try {
-            File fileToParseFrom = dslFile;
-            
-            if (c4FrameworkService.shouldInjectFramework(dslFile)) {
-                try {
-                    String originalContent = Files.readString(dslFile.toPath(), StandardCharsets.UTF_8);
-                    String injectedContent = c4FrameworkService.injectFramework(originalContent);
-                    
-                    File tempDslFile = File.createTempFile("workspace-", ".dsl", Configuration.getInstance().getWorkDirectory());
-                    Files.writeString(tempDslFile.toPath(), injectedContent, StandardCharsets.UTF_8);
-                    fileToParseFrom = tempDslFile;
-                    
-                    log.info("C4 Framework auto-injected for workspace " + workspaceId);
-                } catch (Exception e) {
-                    log.warn("Could not inject C4 framework: " + e.getMessage() + ", parsing original file");
+            Workspace workspace;
+            if (source == null) {
+                workspace = parseWorkspaceFromDsl(workspaceId, dslFile, jsonFile, null);
+            } else {
+                // another parse of this version may have completed since the cache was checked
+                workspace = parsedWorkspaceCache.get(workspaceId, cacheKey);
+                if (workspace == null) {
+                    workspace = parseWorkspaceFromDsl(workspaceId, dslFile, jsonFile, source);
+                    if (workspace != null) {
+                        // the layout file has been written by now, so the key reflects the layout information just merged
+                        File layoutFile = isLayoutSidecarEnabled() ? getLayoutFile(workspaceId) : getJsonFile(getDataDirectory(workspaceId));
+                        parsedWorkspaceCache.put(workspaceId, getCacheKey(source, layoutFile), source.getSize(), workspace, WorkspaceInspections.inspect(workspace));
+                    }
                 }
             }
-            
-            StructurizrDslParser parser = new StructurizrDslParser();
-            parser.getHttpClient().allow(".*");
-            parser.getHttpClient().setTimeout(1000 * 60); // 60 seconds
-            parser.parse(fileToParseFrom);
-            workspace = parser.getWorkspace();
-            workspace.setId(workspaceId);
 
-            // validate workspace scope
-            WorkspaceScopeValidatorFactory.getValidator(workspace).validate(workspace);
+            parse.complete(workspace);
+            return workspace;
+        } catch (RuntimeException e) {
+            parse.completeExceptionally(e);
+            throw e;
+        } finally {
+            parsesInProgress.remove(parseKey, parse);
+        }
+    }
 
-            // run default inspections
-            new DefaultInspector(workspace);
-            
-            if (!workspace.getModel().isEmpty() && workspace.getViews().isEmpty()) {
-                workspace.getViews().createDefaultViews();
+    private Workspace awaitParse(CompletableFuture<Workspace> parse) {
+        // the parse itself is bounded by the parse timeout, but don't wait forever if something else goes wrong
+        Duration timeout = Configuration.getInstance().getDslParseTimeout().plus(PARSE_WAIT_MARGIN);
+        try {
+            return parse.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            error = filename + ".dsl: Timed out waiting for the workspace to be parsed";
+            log.warn(error);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException)e.getCause();
+            } else {
+                throw new RuntimeException(e.getCause());
             }
+        }
+    }
+
+    private String getCacheKey(WorkspaceSource source, File layoutFile) {
+        // layout information is merged in from the JSON/layout file, so external changes to it invalidate the entry
+        return source.getHash() + "/" + layoutFile.lastModified() + "/" + layoutFile.length();
+    }
+
+    private File getJsonFile(File workspaceDirectory) {
+        return WorkspaceJsonFile.find(workspaceDirectory, filename);
+    }
+
+    private File getJsonFileToWrite(long workspaceId) {
+        return WorkspaceJsonFile.get(getDataDirectory(workspaceId), filename, Configuration.getInstance().getCompression());
+    }
+
+    private boolean isLayoutSidecarEnabled() {
+        return WorkspaceLayout.STORAGE_SIDECAR.equals(Configuration.getInstance().getLayoutStorage());
+    }
+
+    private boolean isLayoutStoredInSidecar(long workspaceId) {
+        return isLayoutSidecarEnabled() && new File(getDataDirectory(workspaceId), filename + ".dsl").exists();
+    }
+
+    private File getLayoutFile(long workspaceId) {
+        return new File(new File(Configuration.getInstance().getWorkDirectory(), "" + workspaceId), WorkspaceLayout.FILENAME);
+    }
+
+    private Workspace parseWorkspaceFromDsl(long workspaceId, File dslFile, File jsonFile, WorkspaceSource source) {
+        Workspace workspace = null;
 
-            Workspace workspaceFromJson = loadWorkspaceFromJson(workspaceId, jsonFile);
-            if (workspaceFromJson != null) {
-                workspace.getViews().copyLayoutInformationFrom(workspaceFromJson.getViews());
-                workspace.getViews().getConfiguration().copyConfigurationFrom(workspaceFromJson.getViews().getConfiguration());
+        try {
+            // the snapshot is of the parsed workspace, before layout information is merged in
+            String frameworkHash = c4FrameworkService.getFrameworkHash();
+            workspace = source != null ? workspaceSnapshotStore.load(workspaceId, source.getHash(), frameworkHash) : null;
+            if (workspace == null) {
+                workspace = dslParseExecutor.execute("workspace " + workspaceId, () -> parseDsl(workspaceId, dslFile));
+                if (source != null && frameworkHash != null) {
+                    workspaceSnapshotStore.save(workspaceId, source.getHash(), frameworkHash, workspace);
+                }
             }
 
-            workspace.setLastModifiedDate(DateUtils.removeMilliseconds(DateUtils.getNow()));
+            WorkspaceLayout workspaceLayout = isLayoutSidecarEnabled() ? WorkspaceLayout.load(getLayoutFile(workspaceId)) : null;
+            if (workspaceLayout != null) {
+                workspaceLayout.applyTo(workspace);
 
-            try {
-                putWorkspace(workspace);
-            } catch (Exception e) {
-                log.warn(e);
+                long lastModifiedDate = workspaceChangeDetector.getLastModifiedDate(workspaceId);
+                workspace.setLastModifiedDate(DateUtils.removeMilliseconds(lastModifiedDate > 0 ? new Date(lastModifiedDate) : DateUtils.getNow()));
+
+                try {
+                    putLayout(workspace, calculateContentHash(workspace));
+                } catch (Exception e) {
+                    log.warn(e);
+                }
+            } else {
+                // this is also how layout information is migrated to a layout file, when the sidecar storage mode is first used
+                Workspace workspaceFromJson = loadWorkspaceFromJson(workspaceId, jsonFile);
+                if (workspaceFromJson != null) {
+                    workspace.getViews().copyLayoutInformationFrom(workspaceFromJson.getViews());
+                    workspace.getViews().getConfiguration().copyConfigurationFrom(workspaceFromJson.getViews().getConfiguration());
+                }
+
+                workspace.setLastModifiedDate(DateUtils.removeMilliseconds(DateUtils.getNow()));
+
+                try {
+                    String contentHash = calculateContentHash(workspace);
+                    if (workspaceFromJson != null && !isLayoutSidecarEnabled() && contentHash.equals(workspaceCatalog.getContentHash(workspaceId, jsonFile))) {
+                        // nothing has changed since the JSON file was written, so there's no need to write it again
+                        workspace.setLastModifiedDate(workspaceFromJson.getLastModifiedDate());
+                        index(workspace, contentHash);
+                    } else {
+                        putWorkspace(workspace, contentHash);
+                    }
+                } catch (Exception e) {
+                    log.warn(e);
+                }
             }
 
             error = null;
@@ -234,31 +501,177 @@ class FileSystemWorkspaceComponentImpl implements WorkspaceComponent {
         return workspace;
     }
 
-    public List<WorkspaceMetaData> getWorkspaces() {
-        List<WorkspaceMetaData> workspaces = new ArrayList<>();
-
-        File[] files = dataDirectory.listFiles();
-        if (files != null) {
-            for (File file : files) {
-                long id = parseWorkspaceId(file.getName());
-                if (file.isDirectory() && id > 0) {
-                    try {
-                        Workspace workspace = loadWorkspace(id, true);
-                        if (workspace == null) {
-                            workspace = new Workspace("Workspace " + id, "");
-                            workspace.setId(id);
-                        }
-                        workspaces.add(toWorkspaceMetadata(workspace));
-                    } catch (Exception e) {
-                        log.warn("Ignoring workspace with ID " + id + ": " + e.getMessage());
+    private Workspace parseDsl(long workspaceId, File dslFile) throws Exception {
+        if (c4FrameworkService.isAutoIncludeEnabled()) {
+            // the injected DSL is written to a single file per workspace, so concurrent parses of different versions take turns;
+            // a parse that has timed out may still be running and holding the lock, so waiting for it is bounded and interruptible
+            ReentrantLock lock = c4FrameworkDslLocks.computeIfAbsent(workspaceId, id -> new ReentrantLock());
+            if (!lock.tryLock(Configuration.getInstance().getDslParseTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new WorkspaceComponentException("Workspace " + workspaceId + " is still being parsed, please try again later");
+            }
+
+            try {
+                File fileToParseFrom = dslFile;
+                try {
+                    File c4FrameworkDslFile = writeC4FrameworkDsl(workspaceId, dslFile);
+                    if (c4FrameworkDslFile != null) {
+                        fileToParseFrom = c4FrameworkDslFile;
+                        log.info("C4 Framework auto-injected for workspace " + workspaceId);
                     }
+                } catch (Exception e) {
+                    log.warn("Could not inject C4 framework: " + e.getMessage() + ", parsing original file");
                 }
+
+                return parseDslFile(workspaceId, fileToParseFrom);
+            } finally {
+                lock.unlock();
             }
         }
 
+        return parseDslFile(workspaceId, dslFile);
+    }
+
+    private Workspace parseDslFile(long workspaceId, File dslFile) throws Exception {
+        StructurizrDslParser parser = new StructurizrDslParser();
+        CachingHttpClient httpClient = new CachingHttpClient(remoteContentCache);
+        httpClient.allow(".*"); // the parser only fetches URLs that are on the client's allow-list
+        parser.setHttpClient(httpClient);
+        parser.parse(dslFile);
+        Workspace workspace = parser.getWorkspace();
+        workspace.setId(workspaceId);
+
+        // validate workspace scope
+        WorkspaceScopeValidatorFactory.getValidator(workspace).validate(workspace);
+
+        if (!workspace.getModel().isEmpty() && workspace.getViews().isEmpty()) {
+            workspace.getViews().createDefaultViews();
+        }
+
+        return workspace;
+    }
+
+    /**
+     * Writes the DSL with the C4 framework injected to the work directory (where the framework includes
+     * are resolved from), replacing the existing file only if the content has changed.
+     *
+     * @return the file, or null if the DSL opts out of, or already includes, the framework
+     */
+    private File writeC4FrameworkDsl(long workspaceId, File dslFile) throws IOException {
+        File file = new File(Configuration.getInstance().getWorkDirectory(), C4_FRAMEWORK_DSL_FILENAME_PREFIX + workspaceId + ".dsl");
+        File tmpFile = new File(file.getParentFile(), "." + file.getName() + ".tmp");
+
+        boolean injected;
+        try (BufferedReader reader = Files.newBufferedReader(dslFile.toPath(), StandardCharsets.UTF_8);
+             BufferedWriter writer = Files.newBufferedWriter(tmpFile.toPath(), StandardCharsets.UTF_8)) {
+            injected = c4FrameworkService.injectFramework(reader, writer);
+        }
+
+        if (!injected) {
+            Files.deleteIfExists(tmpFile.toPath());
+            return null;
+        }
+
+        if (file.exists() && Files.mismatch(tmpFile.toPath(), file.toPath()) == -1) {
+            Files.delete(tmpFile.toPath());
+        } else {
+            Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        return file;
+    }
+
+    public List<WorkspaceMetaData> getWorkspaces() {
+        return getWorkspaceList().getSortedByName();
+    }
+
+    @Override
+    public List<WorkspaceMetaData> getWorkspacesByLastModifiedDate() {
+        return getWorkspaceList().getSortedByLastModifiedDate();
+    }
+
+    private WorkspaceList getWorkspaceList() {
+        // the list is only rebuilt (a stat per workspace) when the change detector or the catalog reports a change
+        Set<Long> workspaceIds = workspaceDirectoryIndex.getWorkspaceIds();
+        long lastModifiedDate = workspaceChangeDetector.getLastModifiedDate();
+        long catalogVersion = workspaceCatalog.getVersion();
+
+        WorkspaceList workspaceList = this.workspaceList;
+        if (workspaceList != null && workspaceList.isCurrent(workspaceIds, lastModifiedDate, catalogVersion)) {
+            return workspaceList;
+        }
+
+        workspaceList = new WorkspaceList(workspaceIds, lastModifiedDate, catalogVersion, loadWorkspaceMetaData(workspaceIds));
+        this.workspaceList = workspaceList;
+
+        return workspaceList;
+    }
+
+    private List<WorkspaceMetaData> loadWorkspaceMetaData(Set<Long> workspaceIds) {
+        List<WorkspaceMetaData> workspaces = workspaceLoader.load(workspaceIds, id -> {
+            File file = workspaceDirectoryIndex.get(id);
+            File source = getWorkspaceMetaDataSource(file);
+            WorkspaceMetaData workspaceMetaData = workspaceCatalog.get(id, source);
+            if (workspaceMetaData == null && WorkspaceJsonFile.isJsonFile(source, filename)) {
+                workspaceMetaData = readWorkspaceMetaData(id, source);
+                if (workspaceMetaData != null) {
+                    workspaceCatalog.put(id, workspaceMetaData, source);
+                }
+            }
+
+            if (workspaceMetaData == null) {
+                Workspace workspace = loadWorkspace(id, true);
+                if (workspace == null) {
+                    workspace = new Workspace("Workspace " + id, "");
+                    workspace.setId(id);
+                }
+                workspaceMetaData = toWorkspaceMetadata(workspace);
+
+                // loading a DSL workspace writes the JSON file, so the source may have changed
+                workspaceCatalog.put(id, workspaceMetaData, getWorkspaceMetaDataSource(file));
+            }
+
+            return workspaceMetaData;
+        });
+
+        workspaceCatalog.retainAll(workspaceIds);
+        workspaceCatalog.save();
+
         return workspaces;
     }
 
+    @Override
+    public Set<Long> getWorkspaceIds() {
+        if (Configuration.getInstance().isSingleWorkspace()) {
+            return Set.of(1L);
+        } else {
+            return workspaceDirectoryIndex.getWorkspaceIds();
+        }
+    }
+
+    private WorkspaceMetaData readWorkspaceMetaData(long workspaceId, File jsonFile) {
+        try {
+            return workspaceMetaDataReader.read(workspaceId, jsonFile);
+        } catch (Exception e) {
+            // fall back to loading the workspace, which reports any errors
+            log.debug("Could not read workspace metadata from " + jsonFile.getAbsolutePath() + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private File getWorkspaceMetaDataSource(File workspaceDirectory) {
+        // workspace metadata is read from the JSON file if it exists, or the DSL file otherwise
+        // (the JSON file isn't kept up to date for DSL workspaces when layout information is stored in a sidecar file)
+        File dslFile = new File(workspaceDirectory, filename + ".dsl");
+        File jsonFile = getJsonFile(workspaceDirectory);
+        if (isLayoutSidecarEnabled() && dslFile.exists()) {
+            return dslFile;
+        } else if (jsonFile.exists()) {
+            return jsonFile;
+        } else {
+            return dslFile;
+        }
+    }
+
     public Workspace getWorkspace(long workspaceId, boolean preferJson) {
         Workspace workspace = loadWorkspace(workspaceId, preferJson);
 
@@ -269,21 +682,168 @@ class FileSystemWorkspaceComponentImpl implements WorkspaceComponent {
         return workspace;
     }
 
+    @Override
+    public WorkspaceInspections getInspections(long workspaceId) throws WorkspaceComponentException {
+        Workspace workspace = getWorkspace(workspaceId, false);
+        if (workspace == null) {
+            throw new WorkspaceComponentException(error);
+        }
+
+        // inspections are run when a DSL workspace is parsed, and cached with it
+        WorkspaceInspections inspections = parsedWorkspaceCache.getInspections(workspaceId, workspace);
+        if (inspections == null) {
+            inspections = WorkspaceInspections.inspect(workspace);
+        }
+
+        return inspections;
+    }
+
+    @Override
+    public void warmUp(Collection<Long> workspaceIds, LongConsumer listener) {
+        warmUpLoader.load(workspaceIds, id -> {
+            try {
+                warmUp(id);
+                return id;
+            } finally {
+                listener.accept(id);
+            }
+        });
+    }
+
+    private void warmUp(long workspaceId) throws WorkspaceComponentException {
+        Workspace workspace;
+        if (new File(getDataDirectory(workspaceId), filename + ".dsl").exists()) {
+            // parsing a DSL workspace also caches, snapshots and indexes it
+            workspace = loadWorkspace(workspaceId, false);
+        } else {
+            workspace = loadWorkspace(workspaceId, true);
+            if (workspace != null) {
+                try {
+                    index(workspace, calculateContentHash(workspace));
+                } catch (Exception e) {
+                    log.warn(e);
+                }
+            }
+        }
+
+        if (workspace == null) {
+            throw new WorkspaceComponentException(error);
+        }
+    }
+
     @Override
     public void putWorkspace(Workspace workspace) throws WorkspaceComponentException {
         try {
-            File jsonFile = new File(getDataDirectory(workspace.getId()), filename + ".json");
+            putWorkspace(workspace, calculateContentHash(workspace));
+        } catch (WorkspaceComponentException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error(e);
+            throw new WorkspaceComponentException(e.getMessage());
+        }
+    }
+
+    private void putWorkspace(Workspace workspace, String contentHash) throws WorkspaceComponentException {
+        parsedWorkspaceCache.remove(workspace.getId());
+
+        try {
+            File jsonFile = getJsonFileToWrite(workspace.getId());
             workspace.setLastModifiedDate(DateUtils.removeMilliseconds(DateUtils.getNow()));
-            WorkspaceUtils.saveWorkspaceToJson(workspace, jsonFile);
+            if (isLayoutStoredInSidecar(workspace.getId())) {
+                putLayout(workspace, contentHash);
+            } else if (workspaceWriteBehindQueue != null) {
+                workspaceWriteBehindQueue.put(workspace, contentHash);
+            } else {
+                if (jsonFile.getName().endsWith(".json")) {
+                    WorkspaceUtils.saveWorkspaceToJson(workspace, jsonFile);
+                } else {
+                    WorkspaceWriteBehindQueue.writeAtomically(jsonFile, WorkspaceJsonFile.encode(jsonFile, WorkspaceUtils.toJson(workspace, false).getBytes(StandardCharsets.UTF_8)));
+                }
+                WorkspaceJsonFile.deleteSuperseded(jsonFile);
+                workspaceWritten(workspace, jsonFile, contentHash);
+            }
+        } catch (Exception e) {
+            log.error(e);
+            throw new WorkspaceComponentException(e.getMessage());
+        }
+    }
+
+    @Override
+    public void putViewLayout(long workspaceId, String viewKey, ViewLayout viewLayout) throws WorkspaceComponentException {
+        // layout changes to the same workspace are read-modify-write, so are serialised - other workspaces aren't blocked
+        synchronized (viewLayoutLocks.computeIfAbsent(workspaceId, id -> new Object())) {
+            putViewLayoutInternal(workspaceId, viewKey, viewLayout);
+        }
+    }
+
+    private void putViewLayoutInternal(long workspaceId, String viewKey, ViewLayout viewLayout) throws WorkspaceComponentException {
+        Workspace workspace = null;
+        if (!isLayoutStoredInSidecar(workspaceId)) {
+            workspace = loadWorkspaceFromJson(workspaceId, getJsonFile(getDataDirectory(workspaceId)));
+        }
+
+        if (workspace == null) {
+            // parsed workspaces may be cached, so take a copy rather than modifying the cached version
+            workspace = getWorkspace(workspaceId, false);
+            if (workspace == null) {
+                throw new WorkspaceComponentException(error);
+            }
 
             try {
-                searchComponent.index(workspace);
+                workspace = WorkspaceUtils.fromJson(WorkspaceUtils.toJson(workspace, false));
+                workspace.setId(workspaceId);
             } catch (Exception e) {
-                log.warn(e);
+                log.error(e);
+                throw new WorkspaceComponentException(e.getMessage());
             }
+        }
+
+        View view = workspace.getViews().getViewWithKey(viewKey);
+        if (!(view instanceof ModelView)) {
+            throw new WorkspaceComponentException("A view with the key \"" + viewKey + "\" does not exist");
+        }
+
+        viewLayout.applyTo((ModelView)view);
+        putWorkspace(workspace);
+    }
+
+    private void workspaceWritten(Workspace workspace, File jsonFile, String contentHash) {
+        workspaceCatalog.put(workspace.getId(), toWorkspaceMetadata(workspace), jsonFile, contentHash);
+        index(workspace, contentHash);
+    }
+
+    private void putLayout(Workspace workspace, String contentHash) throws IOException {
+        // only the layout information is written - the rest of the workspace comes from the DSL
+        WorkspaceLayout.of(workspace).save(getLayoutFile(workspace.getId()));
+        index(workspace, contentHash);
+    }
+
+    private void index(Workspace workspace, String contentHash) {
+        if (contentHash.equals(indexedContentHashes.get(workspace.getId()))) {
+            // already indexed
+            return;
+        }
+
+        try {
+            searchComponent.index(workspace);
+            indexedContentHashes.put(workspace.getId(), contentHash);
         } catch (Exception e) {
-            log.error(e);
-            throw new WorkspaceComponentException(e.getMessage());
+            log.warn(e);
+        }
+    }
+
+    /**
+     * Calculates a hash of the workspace content, excluding the last modified date.
+     */
+    private String calculateContentHash(Workspace workspace) throws Exception {
+        Date lastModifiedDate = workspace.getLastModifiedDate();
+        try {
+            workspace.setLastModifiedDate(null);
+            byte[] json = WorkspaceUtils.toJson(workspace, false).getBytes(StandardCharsets.UTF_8);
+
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(json));
+        } finally {
+            workspace.setLastModifiedDate(lastModifiedDate);
         }
     }
 
@@ -368,39 +928,25 @@ class FileSystemWorkspaceComponentImpl implements WorkspaceComponent {
 
     @Scheduled(fixedDelayString = "#{@applicationPropertyService.getAutoRefreshInterval()}")
     public void checkForUpdatedFiles() {
-        lastModifiedDate = findLatestLastModifiedDate(dataDirectory);
+        workspaceChangeDetector.poll();
     }
 
-    private long findLatestLastModifiedDate(File directory) {
-        long timestamp = 0;
-
-        String dslFilename = filename + ".dsl";
-        String jsonFilename = filename + ".json";
-
-        File[] files = directory.listFiles();
-        if (files != null) {
-            for (File file : files) {
-                if (file.getName().startsWith(".") || file.getName().equals("structurizr.properties")) {
-                    // ignore
-                } else if (file.isFile()) {
-                    if (file.getName().equals(jsonFilename) && new File(file.getParentFile(), dslFilename).exists()) {
-                        // ignore JSON file updates if the DSL is being used as the authoring method
-                        // e.g. ignore workspace.json if workspace.dsl exists in the same directory
-                    } else {
-                        timestamp = Math.max(timestamp, file.lastModified());
-                    }
-                } else if (file.isDirectory()) {
-                    timestamp = Math.max(timestamp, findLatestLastModifiedDate(file));
-                }
-            }
+    @Scheduled(fixedDelay = WORKSPACE_CATALOG_SAVE_INTERVAL_IN_MILLISECONDS)
+    public void saveWorkspaceCatalog() {
+        // catalog entries (e.g. content hashes) are updated as workspaces are written, so saves are batched here
+        if (workspaceCatalog != null) {
+            workspaceCatalog.save();
         }
-
-        return timestamp;
     }
 
     @Override
     public long getLastModifiedDate() {
-        return lastModifiedDate;
+        return workspaceChangeDetector.getLastModifiedDate();
+    }
+
+    @Override
+    public long getLastModifiedDate(long workspaceId) {
+        return workspaceChangeDetector.getLastModifiedDate(workspaceId);
     }
 
 }
@@ -0,0 +1,105 @@
+package com.structurizr.lite.component.workspace;
+
+import com.structurizr.Workspace;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * An in-memory, least recently used cache of parsed workspaces, keyed by workspace ID
+ * and validated against a content hash of the workspace source. The cache is bounded
+ * by a maximum number of entries and a maximum total size, where the size of an entry
+ * is estimated from the size of its source files. The inspection results for each
+ * parsed workspace are cached alongside it.
+ *
+ * Cached workspaces are shared between callers, and should be treated as read-only.
+ */
+class ParsedWorkspaceCache {
+
+    private final int maxEntries;
+    private final long maxSize;
+
+    private final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long size = 0;
+
+    ParsedWorkspaceCache(int maxEntries, long maxSize) {
+        this.maxEntries = maxEntries;
+        this.maxSize = maxSize;
+    }
+
+    synchronized Workspace get(long workspaceId, String key) {
+        Entry entry = entries.get(workspaceId);
+        if (entry != null && entry.key.equals(key)) {
+            return entry.workspace;
+        }
+
+        return null;
+    }
+
+    /**
+     * Gets the inspection results for the given workspace, if it's the version that is cached.
+     */
+    synchronized WorkspaceInspections getInspections(long workspaceId, Workspace workspace) {
+        Entry entry = entries.get(workspaceId);
+        if (entry != null && entry.workspace == workspace) {
+            return entry.inspections;
+        }
+
+        return null;
+    }
+
+    synchronized void put(long workspaceId, String key, long size, Workspace workspace) {
+        put(workspaceId, key, size, workspace, null);
+    }
+
+    synchronized void put(long workspaceId, String key, long size, Workspace workspace, WorkspaceInspections inspections) {
+        remove(workspaceId);
+
+        if (maxEntries < 1 || size > maxSize) {
+            return;
+        }
+
+        entries.put(workspaceId, new Entry(key, size, workspace, inspections));
+        this.size += size;
+
+        Iterator<Map.Entry<Long, Entry>> iterator = entries.entrySet().iterator();
+        while ((entries.size() > maxEntries || this.size > maxSize) && iterator.hasNext()) {
+            Entry eldest = iterator.next().getValue();
+            this.size -= eldest.size;
+            iterator.remove();
+        }
+    }
+
+    synchronized void remove(long workspaceId) {
+        Entry entry = entries.remove(workspaceId);
+        if (entry != null) {
+            size -= entry.size;
+        }
+    }
+
+    synchronized int getNumberOfEntries() {
+        return entries.size();
+    }
+
+    synchronized long getSize() {
+        return size;
+    }
+
+    private static final class Entry {
+
+        private final String key;
+        private final long size;
+        private final Workspace workspace;
+        private final WorkspaceInspections inspections;
+
+        Entry(String key, long size, Workspace workspace, WorkspaceInspections inspections) {
+            this.key = key;
+            this.size = size;
+            this.workspace = workspace;
+            this.inspections = inspections;
+        }
+
+    }
+
+}
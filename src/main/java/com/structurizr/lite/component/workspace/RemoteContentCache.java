@@ -0,0 +1,268 @@
+package com.structurizr.lite.component.workspace;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An on-disk cache of the remote content (e.g. !include URLs) referenced by workspace DSL.
+ * Content younger than the max age is returned without a request; older content is revalidated
+ * using the ETag/Last-Modified headers from the previous response. If the remote server can't be
+ * reached, stale content is returned for up to the stale-if-error period. In offline mode, only
+ * cached content is returned.
+ */
+class RemoteContentCache {
+
+    private static final Log log = LogFactory.getLog(RemoteContentCache.class);
+
+    private static final int HTTP_OK = 200;
+    private static final int HTTP_NOT_MODIFIED = 304;
+
+    private static final String CONTENT_FILE_EXTENSION = ".content";
+    private static final String METADATA_FILE_EXTENSION = ".properties";
+
+    private static final String URL_KEY = "url";
+    private static final String CONTENT_TYPE_KEY = "contentType";
+    private static final String ETAG_KEY = "etag";
+    private static final String LAST_MODIFIED_KEY = "lastModified";
+    private static final String FETCHED_AT_KEY = "fetchedAt";
+
+    private final File directory;
+    private final Duration maxAge;
+    private final Duration staleIfError;
+    private final boolean offline;
+    private final Duration timeout;
+    private final HttpClient httpClient;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, Object> locks = new ConcurrentHashMap<>();
+
+    RemoteContentCache(File directory, Duration maxAge, Duration staleIfError, boolean offline, Duration timeout) {
+        this.directory = directory;
+        this.maxAge = maxAge;
+        this.staleIfError = staleIfError;
+        this.offline = offline;
+        this.timeout = timeout;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(timeout)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+
+        directory.mkdirs();
+    }
+
+    /**
+     * Gets the content at the given URL, from the cache where possible.
+     *
+     * @param url   an http(s) URL
+     * @return  the content
+     * @throws IOException  if the content isn't cached and can't be fetched
+     */
+    Content get(String url) throws IOException {
+        String key = key(url);
+
+        // concurrent parses of the same workspace typically request the same URLs, so only fetch each once
+        synchronized (locks.computeIfAbsent(key, k -> new Object())) {
+            Entry entry = entries.computeIfAbsent(key, this::readEntry);
+            if (entry == Entry.NONE) {
+                entry = null;
+            }
+
+            if (offline) {
+                if (entry == null) {
+                    throw new IOException(url + " is not cached and remote content can't be fetched in offline mode");
+                }
+
+                return readContent(key, entry);
+            }
+
+            long age = entry != null ? System.currentTimeMillis() - entry.fetchedAt : Long.MAX_VALUE;
+            if (entry != null && age < maxAge.toMillis()) {
+                return readContent(key, entry);
+            }
+
+            try {
+                return fetch(url, key, entry);
+            } catch (IOException | InterruptedException e) {
+                if (e instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
+                }
+
+                if (entry != null && age < maxAge.plus(staleIfError).toMillis()) {
+                    log.warn("Could not fetch " + url + " (" + e.getMessage() + "), using cached content from " + (age / 1000) + " seconds ago");
+                    return readContent(key, entry);
+                }
+
+                throw e instanceof IOException ? (IOException)e : new IOException("Interrupted while fetching " + url, e);
+            }
+        }
+    }
+
+    private Content fetch(String url, String key, Entry entry) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(timeout)
+                .GET();
+
+        if (entry != null) {
+            if (entry.etag != null) {
+                request.header("If-None-Match", entry.etag);
+            }
+            if (entry.lastModified != null) {
+                request.header("If-Modified-Since", entry.lastModified);
+            }
+        }
+
+        HttpResponse<byte[]> response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        long fetchedAt = System.currentTimeMillis();
+
+        if (response.statusCode() == HTTP_NOT_MODIFIED && entry != null) {
+            log.debug(url + " has not been modified");
+            Entry revalidated = new Entry(url, entry.contentType, entry.etag, entry.lastModified, fetchedAt);
+            writeEntry(key, revalidated);
+
+            return readContent(key, revalidated);
+        }
+
+        if (response.statusCode() != HTTP_OK) {
+            throw new IOException("HTTP " + response.statusCode() + " from " + url);
+        }
+
+        log.debug("Fetched " + url);
+        String content = new String(response.body(), StandardCharsets.UTF_8);
+        Entry fetched = new Entry(
+                url,
+                response.headers().firstValue("Content-Type").orElse(null),
+                response.headers().firstValue("ETag").orElse(null),
+                response.headers().firstValue("Last-Modified").orElse(null),
+                fetchedAt
+        );
+
+        File contentFile = new File(directory, key + CONTENT_FILE_EXTENSION);
+        File tmpFile = new File(directory, "." + contentFile.getName() + ".tmp");
+        Files.write(tmpFile.toPath(), response.body());
+        Files.move(tmpFile.toPath(), contentFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        writeEntry(key, fetched);
+
+        return new Content(content, fetched.contentType);
+    }
+
+    private Content readContent(String key, Entry entry) throws IOException {
+        File contentFile = new File(directory, key + CONTENT_FILE_EXTENSION);
+
+        return new Content(Files.readString(contentFile.toPath(), StandardCharsets.UTF_8), entry.contentType);
+    }
+
+    private Entry readEntry(String key) {
+        File metadataFile = new File(directory, key + METADATA_FILE_EXTENSION);
+        if (!metadataFile.exists() || !new File(directory, key + CONTENT_FILE_EXTENSION).exists()) {
+            return Entry.NONE;
+        }
+
+        try (FileReader reader = new FileReader(metadataFile, StandardCharsets.UTF_8)) {
+            Properties properties = new Properties();
+            properties.load(reader);
+
+            return new Entry(
+                    properties.getProperty(URL_KEY),
+                    properties.getProperty(CONTENT_TYPE_KEY),
+                    properties.getProperty(ETAG_KEY),
+                    properties.getProperty(LAST_MODIFIED_KEY),
+                    Long.parseLong(properties.getProperty(FETCHED_AT_KEY, "0"))
+            );
+        } catch (Exception e) {
+            log.warn("Ignoring cache entry " + metadataFile.getAbsolutePath() + ": " + e.getMessage());
+            return Entry.NONE;
+        }
+    }
+
+    private void writeEntry(String key, Entry entry) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty(URL_KEY, entry.url);
+        properties.setProperty(FETCHED_AT_KEY, "" + entry.fetchedAt);
+        if (entry.contentType != null) {
+            properties.setProperty(CONTENT_TYPE_KEY, entry.contentType);
+        }
+        if (entry.etag != null) {
+            properties.setProperty(ETAG_KEY, entry.etag);
+        }
+        if (entry.lastModified != null) {
+            properties.setProperty(LAST_MODIFIED_KEY, entry.lastModified);
+        }
+
+        File metadataFile = new File(directory, key + METADATA_FILE_EXTENSION);
+        File tmpFile = new File(directory, "." + metadataFile.getName() + ".tmp");
+        try (FileWriter writer = new FileWriter(tmpFile, StandardCharsets.UTF_8)) {
+            properties.store(writer, null);
+        }
+        Files.move(tmpFile.toPath(), metadataFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        entries.put(key, entry);
+    }
+
+    private String key(String url) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(url.getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    static final class Content {
+
+        private final String content;
+        private final String contentType;
+
+        Content(String content, String contentType) {
+            this.content = content;
+            this.contentType = contentType;
+        }
+
+        String getContent() {
+            return content;
+        }
+
+        String getContentType() {
+            return contentType;
+        }
+
+    }
+
+    private static final class Entry {
+
+        private static final Entry NONE = new Entry(null, null, null, null, 0);
+
+        private final String url;
+        private final String contentType;
+        private final String etag;
+        private final String lastModified;
+        private final long fetchedAt;
+
+        Entry(String url, String contentType, String etag, String lastModified, long fetchedAt) {
+            this.url = url;
+            this.contentType = contentType;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.fetchedAt = fetchedAt;
+        }
+
+    }
+
+}
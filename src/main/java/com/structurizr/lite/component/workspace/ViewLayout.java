@@ -0,0 +1,319 @@
+package com.structurizr.lite.component.workspace;
+
+import com.structurizr.model.Relationship;
+import com.structurizr.view.Dimensions;
+import com.structurizr.view.ElementView;
+import com.structurizr.view.ModelView;
+import com.structurizr.view.PaperSize;
+import com.structurizr.view.RelationshipView;
+import com.structurizr.view.Routing;
+import com.structurizr.view.Vertex;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The layout information (element positions, relationship vertices/routing/positions, paper size) for a single view.
+ *
+ * Elements and relationships are identified by ID and, optionally, canonical name - the latter is preferred
+ * when applying a layout, because the IDs of DSL-defined elements change when elements are added/removed.
+ */
+public class ViewLayout {
+
+    private PaperSize paperSize;
+    private Integer width;
+    private Integer height;
+    private List<ElementLayout> elements = new ArrayList<>();
+    private List<RelationshipLayout> relationships = new ArrayList<>();
+
+    public PaperSize getPaperSize() {
+        return paperSize;
+    }
+
+    public void setPaperSize(PaperSize paperSize) {
+        this.paperSize = paperSize;
+    }
+
+    public Integer getWidth() {
+        return width;
+    }
+
+    public void setWidth(Integer width) {
+        this.width = width;
+    }
+
+    public Integer getHeight() {
+        return height;
+    }
+
+    public void setHeight(Integer height) {
+        this.height = height;
+    }
+
+    public List<ElementLayout> getElements() {
+        return elements;
+    }
+
+    public void setElements(List<ElementLayout> elements) {
+        this.elements = elements;
+    }
+
+    public List<RelationshipLayout> getRelationships() {
+        return relationships;
+    }
+
+    public void setRelationships(List<RelationshipLayout> relationships) {
+        this.relationships = relationships;
+    }
+
+    /**
+     * Extracts the layout information from the given view.
+     */
+    public static ViewLayout of(ModelView view) {
+        ViewLayout viewLayout = new ViewLayout();
+        viewLayout.setPaperSize(view.getPaperSize());
+        if (view.getDimensions() != null) {
+            viewLayout.setWidth(view.getDimensions().getWidth());
+            viewLayout.setHeight(view.getDimensions().getHeight());
+        }
+
+        for (ElementView elementView : view.getElements()) {
+            ElementLayout elementLayout = new ElementLayout();
+            elementLayout.setId(elementView.getId());
+            if (elementView.getElement() != null) {
+                elementLayout.setCanonicalName(elementView.getElement().getCanonicalName());
+            }
+            elementLayout.setX(elementView.getX());
+            elementLayout.setY(elementView.getY());
+            viewLayout.getElements().add(elementLayout);
+        }
+
+        for (RelationshipView relationshipView : view.getRelationships()) {
+            RelationshipLayout relationshipLayout = new RelationshipLayout();
+            relationshipLayout.setId(relationshipView.getId());
+            relationshipLayout.setCanonicalName(getCanonicalName(relationshipView));
+            relationshipLayout.setOrder(relationshipView.getOrder());
+            for (Vertex vertex : relationshipView.getVertices()) {
+                relationshipLayout.getVertices().add(new VertexLayout(vertex.getX(), vertex.getY()));
+            }
+            relationshipLayout.setRouting(relationshipView.getRouting());
+            relationshipLayout.setPosition(relationshipView.getPosition());
+            viewLayout.getRelationships().add(relationshipLayout);
+        }
+
+        // sorted, so that the same layout is always serialized in the same way
+        viewLayout.getElements().sort(Comparator.comparing(ElementLayout::getId));
+        viewLayout.getRelationships().sort(Comparator.comparing(RelationshipLayout::getId).thenComparing(RelationshipLayout::getOrder, Comparator.nullsFirst(Comparator.naturalOrder())));
+
+        return viewLayout;
+    }
+
+    /**
+     * Applies this layout information to the given view; elements and relationships that aren't in the view are ignored.
+     */
+    void applyTo(ModelView view) {
+        if (paperSize != null) {
+            view.setPaperSize(paperSize);
+        }
+
+        if (width != null && height != null) {
+            view.setDimensions(new Dimensions(width, height));
+        }
+
+        Map<String, ElementView> elementViews = new HashMap<>();
+        for (ElementView elementView : view.getElements()) {
+            elementViews.put(elementView.getId(), elementView);
+            if (elementView.getElement() != null) {
+                elementViews.put(elementView.getElement().getCanonicalName(), elementView);
+            }
+        }
+
+        for (ElementLayout elementLayout : elements) {
+            ElementView elementView = elementLayout.getCanonicalName() != null ? elementViews.get(elementLayout.getCanonicalName()) : null;
+            if (elementView == null) {
+                elementView = elementViews.get(elementLayout.getId());
+            }
+
+            if (elementView != null) {
+                elementView.setX(elementLayout.getX());
+                elementView.setY(elementLayout.getY());
+            }
+        }
+
+        for (RelationshipLayout relationshipLayout : relationships) {
+            List<RelationshipView> relationshipViews = new ArrayList<>();
+            if (relationshipLayout.getCanonicalName() != null) {
+                for (RelationshipView relationshipView : view.getRelationships()) {
+                    if (relationshipLayout.getCanonicalName().equals(getCanonicalName(relationshipView))) {
+                        relationshipViews.add(relationshipView);
+                    }
+                }
+            }
+
+            if (relationshipViews.isEmpty()) {
+                for (RelationshipView relationshipView : view.getRelationships()) {
+                    if (relationshipView.getId().equals(relationshipLayout.getId())) {
+                        relationshipViews.add(relationshipView);
+                    }
+                }
+            }
+
+            for (RelationshipView relationshipView : relationshipViews) {
+                // dynamic views can include the same relationship more than once
+                if (relationshipLayout.getOrder() == null || relationshipLayout.getOrder().equals(relationshipView.getOrder())) {
+                    List<Vertex> vertices = new ArrayList<>();
+                    for (VertexLayout vertexLayout : relationshipLayout.getVertices()) {
+                        vertices.add(new Vertex(vertexLayout.getX(), vertexLayout.getY()));
+                    }
+                    relationshipView.setVertices(vertices);
+                    relationshipView.setRouting(relationshipLayout.getRouting());
+                    relationshipView.setPosition(relationshipLayout.getPosition());
+                }
+            }
+        }
+    }
+
+    private static String getCanonicalName(RelationshipView relationshipView) {
+        Relationship relationship = relationshipView.getRelationship();
+        if (relationship == null || relationship.getSource() == null || relationship.getDestination() == null) {
+            return null;
+        }
+
+        return relationship.getSource().getCanonicalName() + " -> " + relationship.getDestination().getCanonicalName() + " : " + relationship.getDescription();
+    }
+
+    public static class ElementLayout {
+
+        private String id;
+        private String canonicalName;
+        private int x;
+        private int y;
+
+        public String getId() {
+            return id;
+        }
+
+        public void setId(String id) {
+            this.id = id;
+        }
+
+        public String getCanonicalName() {
+            return canonicalName;
+        }
+
+        public void setCanonicalName(String canonicalName) {
+            this.canonicalName = canonicalName;
+        }
+
+        public int getX() {
+            return x;
+        }
+
+        public void setX(int x) {
+            this.x = x;
+        }
+
+        public int getY() {
+            return y;
+        }
+
+        public void setY(int y) {
+            this.y = y;
+        }
+
+    }
+
+    public static class RelationshipLayout {
+
+        private String id;
+        private String canonicalName;
+        private String order;
+        private List<VertexLayout> vertices = new ArrayList<>();
+        private Routing routing;
+        private Integer position;
+
+        public String getId() {
+            return id;
+        }
+
+        public void setId(String id) {
+            this.id = id;
+        }
+
+        public String getCanonicalName() {
+            return canonicalName;
+        }
+
+        public void setCanonicalName(String canonicalName) {
+            this.canonicalName = canonicalName;
+        }
+
+        public String getOrder() {
+            return order;
+        }
+
+        public void setOrder(String order) {
+            this.order = order;
+        }
+
+        public List<VertexLayout> getVertices() {
+            return vertices;
+        }
+
+        public void setVertices(List<VertexLayout> vertices) {
+            this.vertices = vertices;
+        }
+
+        public Routing getRouting() {
+            return routing;
+        }
+
+        public void setRouting(Routing routing) {
+            this.routing = routing;
+        }
+
+        public Integer getPosition() {
+            return position;
+        }
+
+        public void setPosition(Integer position) {
+            this.position = position;
+        }
+
+    }
+
+    public static class VertexLayout {
+
+        private int x;
+        private int y;
+
+        public VertexLayout() {
+        }
+
+        VertexLayout(int x, int y) {
+            this.x = x;
+            this.y = y;
+        }
+
+        public int getX() {
+            return x;
+        }
+
+        public void setX(int x) {
+            this.x = x;
+        }
+
+        public int getY() {
+            return y;
+        }
+
+        public void setY(int y) {
+            this.y = y;
+        }
+
+    }
+
+}
@@ -0,0 +1,246 @@
+package com.structurizr.lite.component.workspace;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.structurizr.lite.domain.WorkspaceMetaData;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A persistent catalog of workspace metadata (name, description, last modified date and size),
+ * stored in the work directory. Each entry records the size and last modified timestamp of the
+ * file it was read from, so that entries can be validated with a stat rather than a read.
+ * The size reported for compressed JSON files is that of the JSON, as per WorkspaceMetaDataReader.
+ */
+class WorkspaceCatalog {
+
+    private static final Log log = LogFactory.getLog(WorkspaceCatalog.class);
+
+    private static final String CATALOG_FILENAME = "workspaces.json";
+
+    private final File catalogFile;
+    private final ObjectMapper objectMapper = new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong();
+    private volatile boolean dirty = false;
+
+    WorkspaceCatalog(File workDirectory) {
+        this.catalogFile = new File(workDirectory, CATALOG_FILENAME);
+    }
+
+    void load() {
+        if (catalogFile.exists()) {
+            try {
+                List<Entry> list = objectMapper.readValue(catalogFile, new TypeReference<List<Entry>>() {});
+                for (Entry entry : list) {
+                    entries.put(entry.getId(), entry);
+                }
+                log.debug("Loaded " + entries.size() + " workspace(s) from " + catalogFile.getAbsolutePath());
+            } catch (Exception e) {
+                log.warn("Ignoring workspace catalog " + catalogFile.getAbsolutePath() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Gets the metadata for a workspace, if the catalog entry is current with respect to the given source file.
+     */
+    WorkspaceMetaData get(long workspaceId, File source) {
+        Entry entry = entries.get(workspaceId);
+        if (entry != null && entry.isCurrent(source)) {
+            return entry.toWorkspaceMetaData();
+        }
+
+        return null;
+    }
+
+    /**
+     * Gets the content hash recorded when the given JSON file was last written, if it hasn't changed since.
+     */
+    String getContentHash(long workspaceId, File jsonFile) {
+        Entry entry = entries.get(workspaceId);
+        if (entry != null && entry.isCurrent(jsonFile)) {
+            return entry.getContentHash();
+        }
+
+        return null;
+    }
+
+    void put(long workspaceId, WorkspaceMetaData workspaceMetaData, File source) {
+        // retain the content hash if the source hasn't changed
+        put(workspaceId, workspaceMetaData, source, getContentHash(workspaceId, source));
+    }
+
+    void put(long workspaceId, WorkspaceMetaData workspaceMetaData, File source, String contentHash) {
+        Entry entry = new Entry();
+        entry.setId(workspaceId);
+        entry.setName(workspaceMetaData.getName());
+        entry.setDescription(workspaceMetaData.getDescription());
+        if (workspaceMetaData.getLastModifiedDate() != null) {
+            entry.setLastModifiedDate(workspaceMetaData.getLastModifiedDate().getTime());
+        }
+        entry.setSource(source.getName());
+        entry.setSourceLastModified(source.lastModified());
+        entry.setSize(source.length());
+        entry.setWorkspaceSize(getWorkspaceSize(source));
+        entry.setContentHash(contentHash);
+
+        entries.put(workspaceId, entry);
+        version.incrementAndGet();
+        dirty = true;
+    }
+
+    private long getWorkspaceSize(File source) {
+        try {
+            return WorkspaceJsonFile.length(source);
+        } catch (Exception e) {
+            log.warn("Could not get the size of " + source.getAbsolutePath() + ": " + e.getMessage());
+            return source.length();
+        }
+    }
+
+    void retainAll(Set<Long> workspaceIds) {
+        if (entries.keySet().retainAll(workspaceIds)) {
+            version.incrementAndGet();
+            dirty = true;
+        }
+    }
+
+    /**
+     * Gets a number that changes whenever an entry is added, updated or removed.
+     */
+    long getVersion() {
+        return version.get();
+    }
+
+    synchronized void save() {
+        if (!dirty) {
+            return;
+        }
+
+        try {
+            dirty = false;
+            File tmpFile = new File(catalogFile.getParentFile(), CATALOG_FILENAME + ".tmp");
+            objectMapper.writeValue(tmpFile, new ArrayList<>(entries.values()));
+            Files.move(tmpFile.toPath(), catalogFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (Exception e) {
+            dirty = true;
+            log.warn("Could not save workspace catalog " + catalogFile.getAbsolutePath() + ": " + e.getMessage());
+        }
+    }
+
+    static final class Entry {
+
+        private long id;
+        private String name;
+        private String description;
+        private Long lastModifiedDate;
+        private String source;
+        private long sourceLastModified;
+        private long size;
+        private long workspaceSize;
+        private String contentHash;
+
+        public long getId() {
+            return id;
+        }
+
+        public void setId(long id) {
+            this.id = id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        public void setDescription(String description) {
+            this.description = description;
+        }
+
+        public Long getLastModifiedDate() {
+            return lastModifiedDate;
+        }
+
+        public void setLastModifiedDate(Long lastModifiedDate) {
+            this.lastModifiedDate = lastModifiedDate;
+        }
+
+        public String getSource() {
+            return source;
+        }
+
+        public void setSource(String source) {
+            this.source = source;
+        }
+
+        public long getSourceLastModified() {
+            return sourceLastModified;
+        }
+
+        public void setSourceLastModified(long sourceLastModified) {
+            this.sourceLastModified = sourceLastModified;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public void setSize(long size) {
+            this.size = size;
+        }
+
+        public long getWorkspaceSize() {
+            return workspaceSize;
+        }
+
+        public void setWorkspaceSize(long workspaceSize) {
+            this.workspaceSize = workspaceSize;
+        }
+
+        public String getContentHash() {
+            return contentHash;
+        }
+
+        public void setContentHash(String contentHash) {
+            this.contentHash = contentHash;
+        }
+
+        boolean isCurrent(File file) {
+            return file.getName().equals(source) && file.lastModified() == sourceLastModified && file.length() == size;
+        }
+
+        WorkspaceMetaData toWorkspaceMetaData() {
+            WorkspaceMetaData workspaceMetaData = new WorkspaceMetaData(id);
+            workspaceMetaData.setName(name);
+            workspaceMetaData.setDescription(description);
+            if (lastModifiedDate != null) {
+                workspaceMetaData.setLastModifiedDate(new Date(lastModifiedDate));
+            }
+            workspaceMetaData.setSize(workspaceSize > 0 ? workspaceSize : size); // catalogs saved by older versions only have the file size
+
+            return workspaceMetaData;
+        }
+
+    }
+
+}
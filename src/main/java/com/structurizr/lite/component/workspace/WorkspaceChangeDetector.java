@@ -0,0 +1,281 @@
+package com.structurizr.lite.component.workspace;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import static com.structurizr.lite.component.workspace.WorkspaceDirectory.parseWorkspaceId;
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * Keeps track of the last modified date of each workspace in the data directory.
+ *
+ * Where the file system supports it, directories are registered (incrementally, as they are created)
+ * with a WatchService, and timestamps are updated as change events arrive. Otherwise (e.g. on network
+ * file systems, which don't deliver change events for remote modifications), the data directory is
+ * walked each time poll() is called.
+ */
+class WorkspaceChangeDetector {
+
+    private static final Log log = LogFactory.getLog(WorkspaceChangeDetector.class);
+
+    static final String MODE_AUTO = "auto";
+    static final String MODE_WATCH = "watch";
+    static final String MODE_POLL = "poll";
+
+    private static final String STRUCTURIZR_PROPERTIES_FILENAME = "structurizr.properties";
+
+    // file systems that either don't support change events, or only report local changes
+    private static final String[] UNWATCHABLE_FILE_STORE_TYPES = { "nfs", "cifs", "smb", "fuse", "9p", "vboxsf", "prl_fs" };
+
+    // used to record changes to files that don't belong to a workspace (e.g. in the root of the data directory)
+    private static final long NO_WORKSPACE = 0;
+
+    private final File dataDirectory;
+    private final String dslFilename;
+    private final String jsonFilename;
+    private final boolean singleWorkspace;
+    private final String mode;
+
+    private final Map<Long, Long> lastModifiedDates = new ConcurrentHashMap<>();
+
+    private volatile WatchService watchService;
+    private Consumer<File> workspaceDirectoryListener = file -> {};
+
+    WorkspaceChangeDetector(File dataDirectory, String filename, boolean singleWorkspace, String mode) {
+        this.dataDirectory = dataDirectory;
+        this.dslFilename = filename + ".dsl";
+        this.jsonFilename = filename + ".json";
+        this.singleWorkspace = singleWorkspace;
+        this.mode = mode;
+    }
+
+    /**
+     * Sets a listener to be notified when a file directly inside the data directory
+     * (e.g. a workspace directory) is created or deleted, when change events are being used.
+     */
+    void setWorkspaceDirectoryListener(Consumer<File> workspaceDirectoryListener) {
+        this.workspaceDirectoryListener = workspaceDirectoryListener;
+    }
+
+    void start() {
+        if (!MODE_POLL.equals(mode) && (MODE_WATCH.equals(mode) || isWatchable(dataDirectory.toPath()))) {
+            try {
+                watchService = FileSystems.getDefault().newWatchService();
+                if (watchService.getClass().getName().contains("Polling")) {
+                    // the JDK falls back to a polling implementation on some platforms (e.g. macOS), which is
+                    // less responsive than our own polling
+                    log.debug("WatchService is polling-based - using polling instead");
+                    watchService.close();
+                    watchService = null;
+                }
+            } catch (UnsupportedOperationException | IOException e) {
+                log.debug("WatchService is not supported: " + e.getMessage());
+                watchService = null;
+            }
+        }
+
+        if (watchService != null) {
+            try {
+                register(dataDirectory.toPath());
+            } catch (IOException e) {
+                log.warn("Could not watch " + dataDirectory.getAbsolutePath() + " for changes (" + e.getMessage() + ") - falling back to polling");
+                closeWatchService();
+            }
+        }
+
+        if (watchService != null) {
+            Thread watchThread = new Thread(this::processEvents, "workspace-change-detector");
+            watchThread.setDaemon(true);
+            watchThread.start();
+            log.debug("Watching " + dataDirectory.getAbsolutePath() + " for changes");
+        } else {
+            poll();
+            log.debug("Polling " + dataDirectory.getAbsolutePath() + " for changes");
+        }
+    }
+
+    void stop() {
+        closeWatchService();
+    }
+
+    boolean isWatching() {
+        return watchService != null;
+    }
+
+    /**
+     * Walks the data directory to find changes - this does nothing if change events are being used.
+     */
+    void poll() {
+        if (watchService == null) {
+            Map<Long, Long> timestamps = new ConcurrentHashMap<>();
+            findLatestLastModifiedDates(dataDirectory, timestamps);
+            lastModifiedDates.putAll(timestamps);
+        }
+    }
+
+    long getLastModifiedDate() {
+        long timestamp = 0;
+        for (long lastModifiedDate : lastModifiedDates.values()) {
+            timestamp = Math.max(timestamp, lastModifiedDate);
+        }
+
+        return timestamp;
+    }
+
+    long getLastModifiedDate(long workspaceId) {
+        return lastModifiedDates.getOrDefault(workspaceId, 0L);
+    }
+
+    private boolean isWatchable(Path path) {
+        try {
+            String type = Files.getFileStore(path).type().toLowerCase();
+            for (String unwatchableType : UNWATCHABLE_FILE_STORE_TYPES) {
+                if (type.startsWith(unwatchableType)) {
+                    log.debug(path + " is on a " + type + " file system");
+                    return false;
+                }
+            }
+
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private void register(Path directory) throws IOException {
+        directory.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+
+        File[] files = directory.toFile().listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (isIgnored(file)) {
+                    // ignore
+                } else if (file.isFile()) {
+                    updated(file, file.lastModified());
+                } else if (file.isDirectory()) {
+                    register(file.toPath());
+                }
+            }
+        }
+    }
+
+    private void processEvents() {
+        while (true) {
+            WatchService watchService = this.watchService;
+            if (watchService == null) {
+                return;
+            }
+
+            WatchKey key;
+            try {
+                key = watchService.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+
+            Path directory = (Path)key.watchable();
+            for (WatchEvent<?> event : key.pollEvents()) {
+                try {
+                    if (event.kind() == OVERFLOW) {
+                        // some events have been lost, so treat everything as having changed
+                        log.debug("Change events have been lost - rescanning " + dataDirectory.getAbsolutePath());
+                        register(dataDirectory.toPath());
+                        continue;
+                    }
+
+                    File file = directory.resolve((Path)event.context()).toFile();
+                    if (event.kind() != ENTRY_MODIFY && directory.equals(dataDirectory.toPath())) {
+                        workspaceDirectoryListener.accept(file);
+                    }
+
+                    if (isIgnored(file)) {
+                        // ignore
+                    } else if (event.kind() == ENTRY_DELETE) {
+                        updated(file, System.currentTimeMillis());
+                    } else if (file.isDirectory()) {
+                        if (event.kind() == ENTRY_CREATE) {
+                            register(file.toPath());
+                        }
+                    } else {
+                        long lastModified = file.lastModified();
+                        updated(file, lastModified > 0 ? lastModified : System.currentTimeMillis());
+                    }
+                } catch (ClosedWatchServiceException e) {
+                    return;
+                } catch (Exception e) {
+                    log.warn("Error processing change event for " + directory + ": " + e.getMessage());
+                }
+            }
+
+            key.reset();
+        }
+    }
+
+    private void updated(File file, long timestamp) {
+        lastModifiedDates.merge(getWorkspaceId(file), timestamp, Math::max);
+    }
+
+    private long getWorkspaceId(File file) {
+        if (singleWorkspace) {
+            return 1;
+        }
+
+        Path path = dataDirectory.toPath().relativize(file.toPath());
+        if (path.getNameCount() > 1) {
+            return parseWorkspaceId(path.getName(0).toString());
+        } else {
+            return NO_WORKSPACE;
+        }
+    }
+
+    private boolean isIgnored(File file) {
+        String name = file.getName();
+        if (name.startsWith(".") || name.equals(STRUCTURIZR_PROPERTIES_FILENAME)) {
+            return true;
+        }
+
+        // ignore JSON file updates if the DSL is being used as the authoring method
+        // e.g. ignore workspace.json if workspace.dsl exists in the same directory
+        return (name.equals(jsonFilename) || name.equals(jsonFilename + ".gz")) && new File(file.getParentFile(), dslFilename).exists();
+    }
+
+    private void findLatestLastModifiedDates(File directory, Map<Long, Long> timestamps) {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (isIgnored(file)) {
+                    // ignore
+                } else if (file.isFile()) {
+                    timestamps.merge(getWorkspaceId(file), file.lastModified(), Math::max);
+                } else if (file.isDirectory()) {
+                    findLatestLastModifiedDates(file, timestamps);
+                }
+            }
+        }
+    }
+
+    private void closeWatchService() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                log.warn(e);
+            }
+            watchService = null;
+        }
+    }
+
+}
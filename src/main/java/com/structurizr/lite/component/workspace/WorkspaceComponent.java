@@ -4,7 +4,10 @@ import com.structurizr.Workspace;
 import com.structurizr.lite.domain.WorkspaceMetaData;
 import com.structurizr.lite.util.Image;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
+import java.util.function.LongConsumer;
 
 /**
  * Provides access to workspace data stored on the file system.
@@ -13,12 +16,28 @@ public interface WorkspaceComponent {
 
     void start() throws Exception;
 
+    /**
+     * Gets the metadata of all workspaces, sorted by name.
+     */
     List<WorkspaceMetaData> getWorkspaces();
 
+    /**
+     * Gets the metadata of all workspaces, most recently modified first.
+     */
+    List<WorkspaceMetaData> getWorkspacesByLastModifiedDate();
+
+    Set<Long> getWorkspaceIds();
+
     Workspace getWorkspace(long workspaceId, boolean preferJson);
 
+    WorkspaceInspections getInspections(long workspaceId) throws WorkspaceComponentException;
+
+    void warmUp(Collection<Long> workspaceIds, LongConsumer listener);
+
     void putWorkspace(Workspace workspace) throws WorkspaceComponentException;
 
+    void putViewLayout(long workspaceId, String viewKey, ViewLayout viewLayout) throws WorkspaceComponentException;
+
     String getError();
 
     Image getImage(long workspaceId, String filename) throws WorkspaceComponentException;
@@ -27,4 +46,6 @@ public interface WorkspaceComponent {
 
     long getLastModifiedDate();
 
+    long getLastModifiedDate(long workspaceId);
+
 }
\ No newline at end of file
@@ -0,0 +1,110 @@
+package com.structurizr.lite.component.workspace;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.structurizr.lite.component.workspace.WorkspaceDirectory.parseWorkspaceId;
+
+/**
+ * An index of workspace ID to workspace directory (e.g. "123" or "123-name"), for the multi-workspace
+ * data directory layout. The index is built at startup and kept current via update(), which is called
+ * as directories are created/deleted. As a safety net (e.g. when change events aren't available),
+ * the index is also rebuilt on a miss if the data directory has been modified since it was last built.
+ * If there's more than one directory for a workspace ID, the directory named exactly after the workspace ID
+ * (e.g. "123") is preferred over others (e.g. "123-name").
+ */
+class WorkspaceDirectoryIndex {
+
+    // file timestamps can be coarse, so don't trust the data directory timestamp if it was modified this close to the last rebuild
+    private static final long RACY_TIMESTAMP_WINDOW_IN_MILLISECONDS = 2000;
+
+    private final File dataDirectory;
+    private final Map<Long, File> directories = new ConcurrentHashMap<>();
+
+    private volatile long dataDirectoryLastModified;
+    private volatile long builtAt;
+
+    WorkspaceDirectoryIndex(File dataDirectory) {
+        this.dataDirectory = dataDirectory;
+    }
+
+    synchronized void rebuild() {
+        builtAt = System.currentTimeMillis();
+        dataDirectoryLastModified = dataDirectory.lastModified();
+
+        Map<Long, File> index = new HashMap<>();
+        File[] files = dataDirectory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                long id = parseWorkspaceId(file.getName());
+                if (file.isDirectory() && id > 0) {
+                    index.merge(id, file, (current, candidate) -> choose(id, current, candidate));
+                }
+            }
+        }
+
+        directories.putAll(index);
+        directories.keySet().retainAll(index.keySet());
+    }
+
+    /**
+     * Called when a file in the data directory has been created or deleted.
+     */
+    void update(File file) {
+        long id = parseWorkspaceId(file.getName());
+        if (id > 0) {
+            if (file.isDirectory()) {
+                directories.merge(id, file, (current, candidate) -> current.isDirectory() ? choose(id, current, candidate) : candidate);
+            } else if (directories.remove(id, file)) {
+                // there may be another directory for the same workspace
+                rebuild();
+            }
+        }
+    }
+
+    /**
+     * Gets the directory for the given workspace ID, or the default directory (named after the workspace ID)
+     * if the workspace doesn't exist.
+     */
+    File get(long workspaceId) {
+        File directory = directories.get(workspaceId);
+        if (directory != null && directory.isDirectory()) {
+            return directory;
+        }
+
+        if (isStale()) {
+            rebuild();
+            directory = directories.get(workspaceId);
+            if (directory != null) {
+                return directory;
+            }
+        }
+
+        return new File(dataDirectory, "" + workspaceId);
+    }
+
+    /**
+     * Gets the IDs of all workspaces in the data directory.
+     */
+    Set<Long> getWorkspaceIds() {
+        if (isStale()) {
+            rebuild();
+        }
+
+        return new HashSet<>(directories.keySet());
+    }
+
+    private static File choose(long workspaceId, File current, File candidate) {
+        return candidate.getName().equals("" + workspaceId) ? candidate : current;
+    }
+
+    private boolean isStale() {
+        long lastModified = dataDirectory.lastModified();
+        return lastModified != dataDirectoryLastModified || builtAt - lastModified <= RACY_TIMESTAMP_WINDOW_IN_MILLISECONDS;
+    }
+
+}
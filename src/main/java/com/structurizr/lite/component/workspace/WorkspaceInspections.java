@@ -0,0 +1,51 @@
+package com.structurizr.lite.component.workspace;
+
+import com.structurizr.Workspace;
+import com.structurizr.inspection.DefaultInspector;
+import com.structurizr.inspection.Inspector;
+import com.structurizr.inspection.Severity;
+import com.structurizr.inspection.Violation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The results of running the default inspections against a version of a workspace, with the violations sorted by severity.
+ */
+public final class WorkspaceInspections {
+
+    private final int numberOfInspections;
+    private final List<Violation> violations;
+
+    private WorkspaceInspections(int numberOfInspections, List<Violation> violations) {
+        this.numberOfInspections = numberOfInspections;
+        this.violations = Collections.unmodifiableList(violations);
+    }
+
+    static WorkspaceInspections inspect(Workspace workspace) {
+        Inspector inspector = new DefaultInspector(workspace);
+        List<Violation> violations = new ArrayList<>(inspector.getViolations());
+        violations.sort(Comparator.comparing(Violation::getSeverity));
+
+        return new WorkspaceInspections(inspector.getNumberOfInspections(), violations);
+    }
+
+    public int getNumberOfInspections() {
+        return numberOfInspections;
+    }
+
+    public List<Violation> getViolations() {
+        return violations;
+    }
+
+    public int getNumberOfViolations() {
+        return violations.size();
+    }
+
+    public long getNumberOfViolations(Severity severity) {
+        return violations.stream().filter(v -> v.getSeverity() == severity).count();
+    }
+
+}
@@ -0,0 +1,136 @@
+package com.structurizr.lite.component.workspace;
+
+import com.structurizr.Workspace;
+import com.structurizr.io.json.JsonReader;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Workspace JSON files can be stored as plain JSON (e.g. workspace.json) or gzip compressed JSON
+ * (e.g. workspace.json.gz). Reads use whichever of the two was written most recently, so that
+ * compression can be turned on/off without converting existing files.
+ */
+class WorkspaceJsonFile {
+
+    private static final Log log = LogFactory.getLog(WorkspaceJsonFile.class);
+
+    static final String COMPRESSION_NONE = "none";
+    static final String COMPRESSION_GZIP = "gzip";
+
+    private static final String JSON_EXTENSION = ".json";
+    private static final String GZIP_EXTENSION = ".gz";
+
+    /**
+     * Finds the JSON file to read from, which may or may not exist.
+     */
+    static File find(File workspaceDirectory, String filename) {
+        File jsonFile = new File(workspaceDirectory, filename + JSON_EXTENSION);
+        File compressedJsonFile = new File(workspaceDirectory, filename + JSON_EXTENSION + GZIP_EXTENSION);
+
+        if (compressedJsonFile.exists() && (!jsonFile.exists() || compressedJsonFile.lastModified() >= jsonFile.lastModified())) {
+            return compressedJsonFile;
+        } else {
+            return jsonFile;
+        }
+    }
+
+    /**
+     * Gets the JSON file to write to.
+     */
+    static File get(File workspaceDirectory, String filename, String compression) {
+        if (COMPRESSION_GZIP.equals(compression)) {
+            return new File(workspaceDirectory, filename + JSON_EXTENSION + GZIP_EXTENSION);
+        } else {
+            return new File(workspaceDirectory, filename + JSON_EXTENSION);
+        }
+    }
+
+    static boolean isJsonFile(File file, String filename) {
+        return file.getName().equals(filename + JSON_EXTENSION) || file.getName().equals(filename + JSON_EXTENSION + GZIP_EXTENSION);
+    }
+
+    static InputStream open(File file) throws IOException {
+        InputStream in = new BufferedInputStream(Files.newInputStream(file.toPath()));
+        if (isCompressed(file)) {
+            return new GZIPInputStream(in, 64 * 1024);
+        } else {
+            return in;
+        }
+    }
+
+    /**
+     * Gets the length of the (uncompressed) JSON in the given file. For compressed files, this is read from
+     * the gzip trailer, which records the length modulo 2^32 (i.e. it's only exact for JSON smaller than 4GB).
+     */
+    static long length(File file) throws IOException {
+        if (!isCompressed(file)) {
+            return file.length();
+        }
+
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r")) {
+            randomAccessFile.seek(randomAccessFile.length() - 4);
+            return Integer.toUnsignedLong(Integer.reverseBytes(randomAccessFile.readInt()));
+        }
+    }
+
+    static Workspace load(File file) throws Exception {
+        try (Reader reader = new InputStreamReader(open(file), StandardCharsets.UTF_8)) {
+            return new JsonReader().read(reader);
+        }
+    }
+
+    /**
+     * Encodes the given JSON for writing to the given file.
+     */
+    static byte[] encode(File file, byte[] json) throws IOException {
+        if (isCompressed(file)) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(json.length / 4);
+            try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+                out.write(json);
+            }
+
+            return bytes.toByteArray();
+        } else {
+            return json;
+        }
+    }
+
+    /**
+     * Deletes the other form of the given file (e.g. workspace.json after writing workspace.json.gz), which has been
+     * superseded - otherwise a write within the file system's timestamp granularity could be shadowed by a stale file.
+     */
+    static void deleteSuperseded(File file) {
+        File supersededFile;
+        if (isCompressed(file)) {
+            supersededFile = new File(file.getParentFile(), file.getName().substring(0, file.getName().length() - GZIP_EXTENSION.length()));
+        } else {
+            supersededFile = new File(file.getParentFile(), file.getName() + GZIP_EXTENSION);
+        }
+
+        try {
+            if (Files.deleteIfExists(supersededFile.toPath())) {
+                log.debug("Deleted superseded file " + supersededFile.getAbsolutePath());
+            }
+        } catch (IOException e) {
+            log.warn("Could not delete superseded file " + supersededFile.getAbsolutePath() + ": " + e.getMessage());
+        }
+    }
+
+    private static boolean isCompressed(File file) {
+        return file.getName().endsWith(GZIP_EXTENSION);
+    }
+
+}
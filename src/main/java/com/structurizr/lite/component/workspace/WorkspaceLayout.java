@@ -0,0 +1,112 @@
+package com.structurizr.lite.component.workspace;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.structurizr.Workspace;
+import com.structurizr.view.ModelView;
+import com.structurizr.view.View;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The layout information and view configuration for all views in a workspace, which is stored in a sidecar file
+ * (rather than the workspace JSON file) for DSL-authored workspaces when the "sidecar" layout storage mode is used.
+ */
+class WorkspaceLayout {
+
+    static final String STORAGE_JSON = "json";
+    static final String STORAGE_SIDECAR = "sidecar";
+
+    static final String FILENAME = "layout.json";
+
+    private static final ObjectMapper objectMapper = new ObjectMapper()
+            .setSerializationInclusion(JsonInclude.Include.NON_NULL)
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private String lastSavedView;
+    private Map<String, ViewLayout> views = new TreeMap<>();
+
+    public String getLastSavedView() {
+        return lastSavedView;
+    }
+
+    public void setLastSavedView(String lastSavedView) {
+        this.lastSavedView = lastSavedView;
+    }
+
+    public Map<String, ViewLayout> getViews() {
+        return views;
+    }
+
+    public void setViews(Map<String, ViewLayout> views) {
+        this.views = new TreeMap<>(views);
+    }
+
+    static WorkspaceLayout of(Workspace workspace) {
+        WorkspaceLayout workspaceLayout = new WorkspaceLayout();
+        workspaceLayout.setLastSavedView(workspace.getViews().getConfiguration().getLastSavedView());
+
+        for (View view : workspace.getViews().getViews()) {
+            if (view instanceof ModelView) {
+                workspaceLayout.getViews().put(view.getKey(), ViewLayout.of((ModelView)view));
+            }
+        }
+
+        return workspaceLayout;
+    }
+
+    void applyTo(Workspace workspace) {
+        if (lastSavedView != null) {
+            workspace.getViews().getConfiguration().setLastSavedView(lastSavedView);
+        }
+
+        for (View view : workspace.getViews().getViews()) {
+            ViewLayout viewLayout = views.get(view.getKey());
+            if (viewLayout != null && view instanceof ModelView) {
+                viewLayout.applyTo((ModelView)view);
+            }
+        }
+    }
+
+    static WorkspaceLayout load(File file) throws IOException {
+        if (file.exists()) {
+            return objectMapper.readValue(file, WorkspaceLayout.class);
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Saves this layout to the given file, unless the file already contains the same layout.
+     *
+     * @return  true if the file was written, false otherwise
+     */
+    boolean save(File file) throws IOException {
+        byte[] content = objectMapper.writeValueAsBytes(this);
+        if (file.exists() && Arrays.equals(content, Files.readAllBytes(file.toPath()))) {
+            return false;
+        }
+
+        file.getParentFile().mkdirs();
+
+        // the layout may be saved concurrently (e.g. by a DSL parse and a layout change), so each save needs its own temp file
+        Path tmpFile = Files.createTempFile(file.getParentFile().toPath(), "." + FILENAME, ".tmp");
+        try {
+            Files.write(tmpFile, content);
+            Files.move(tmpFile, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmpFile);
+        }
+
+        return true;
+    }
+
+}
@@ -0,0 +1,56 @@
+package com.structurizr.lite.component.workspace;
+
+import com.structurizr.lite.domain.WorkspaceMetaData;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * A snapshot of the workspace metadata in the catalog, sorted by name and by last modified date.
+ * The snapshot records the workspace IDs, latest change detector timestamp and catalog version it was
+ * built from, so that it can be reused until one of those changes rather than being rebuilt per request.
+ */
+final class WorkspaceList {
+
+    private static final Comparator<WorkspaceMetaData> BY_NAME =
+            Comparator.comparing(wmd -> wmd.getName() != null ? wmd.getName().toLowerCase(Locale.ROOT) : "");
+
+    private static final Comparator<WorkspaceMetaData> BY_LAST_MODIFIED_DATE =
+            Comparator.comparing(WorkspaceMetaData::getLastModifiedDate, Comparator.nullsLast(Comparator.<Date>reverseOrder()));
+
+    private final Set<Long> workspaceIds;
+    private final long lastModifiedDate;
+    private final long catalogVersion;
+    private final List<WorkspaceMetaData> sortedByName;
+    private final List<WorkspaceMetaData> sortedByLastModifiedDate;
+
+    WorkspaceList(Set<Long> workspaceIds, long lastModifiedDate, long catalogVersion, List<WorkspaceMetaData> workspaces) {
+        this.workspaceIds = Set.copyOf(workspaceIds);
+        this.lastModifiedDate = lastModifiedDate;
+        this.catalogVersion = catalogVersion;
+
+        List<WorkspaceMetaData> list = new ArrayList<>(workspaces);
+        list.sort(BY_NAME);
+        this.sortedByName = List.copyOf(list);
+
+        list.sort(BY_LAST_MODIFIED_DATE);
+        this.sortedByLastModifiedDate = List.copyOf(list);
+    }
+
+    boolean isCurrent(Set<Long> workspaceIds, long lastModifiedDate, long catalogVersion) {
+        return this.lastModifiedDate == lastModifiedDate && this.catalogVersion == catalogVersion && this.workspaceIds.equals(workspaceIds);
+    }
+
+    List<WorkspaceMetaData> getSortedByName() {
+        return sortedByName;
+    }
+
+    List<WorkspaceMetaData> getSortedByLastModifiedDate() {
+        return sortedByLastModifiedDate;
+    }
+
+}
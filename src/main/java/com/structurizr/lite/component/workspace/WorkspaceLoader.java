@@ -0,0 +1,81 @@
+package com.structurizr.lite.component.workspace;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs an operation against a number of workspaces in parallel, on a bounded thread pool. Bulk operations that
+ * shouldn't wait for each other (e.g. home page loads and startup warm-up) use separate loaders.
+ * A workspace that fails is logged and ignored, rather than failing the whole operation.
+ */
+class WorkspaceLoader {
+
+    private static final Log log = LogFactory.getLog(WorkspaceLoader.class);
+
+    interface Operation<T> {
+
+        T apply(long workspaceId) throws Exception;
+
+    }
+
+    private final ExecutorService executorService;
+
+    WorkspaceLoader(String name, int threads) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread thread = new Thread(r, name + "-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        threadPoolExecutor.allowCoreThreadTimeOut(true);
+
+        this.executorService = threadPoolExecutor;
+    }
+
+    /**
+     * Applies the given operation to each workspace, returning the non-null results in the same order as the workspace IDs.
+     */
+    <T> List<T> load(Collection<Long> workspaceIds, Operation<T> operation) {
+        List<Long> ids = new ArrayList<>(workspaceIds);
+        List<Future<T>> futures = new ArrayList<>();
+        for (long workspaceId : ids) {
+            futures.add(executorService.submit(() -> operation.apply(workspaceId)));
+        }
+
+        List<T> results = new ArrayList<>();
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                T result = futures.get(i).get();
+                if (result != null) {
+                    results.add(result);
+                }
+            } catch (ExecutionException e) {
+                log.warn("Ignoring workspace with ID " + ids.get(i) + ": " + e.getCause().getMessage());
+            } catch (InterruptedException e) {
+                for (Future<T> future : futures) {
+                    future.cancel(true);
+                }
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        return results;
+    }
+
+    void stop() {
+        executorService.shutdownNow();
+    }
+
+}
@@ -0,0 +1,77 @@
+package com.structurizr.lite.component.workspace;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.structurizr.lite.domain.WorkspaceMetaData;
+import com.structurizr.lite.util.DateUtils;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Reads workspace metadata (name, description and last modified date) from the top-level
+ * properties of a (plain or compressed) workspace JSON file, without deserializing the model,
+ * views, documentation, etc. The size is that of the JSON, even if the file is compressed.
+ */
+class WorkspaceMetaDataReader {
+
+    private static final String NAME_PROPERTY = "name";
+    private static final String DESCRIPTION_PROPERTY = "description";
+    private static final String LAST_MODIFIED_DATE_PROPERTY = "lastModifiedDate";
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    WorkspaceMetaData read(long workspaceId, File jsonFile) throws IOException {
+        WorkspaceMetaData workspaceMetaData = new WorkspaceMetaData(workspaceId);
+        workspaceMetaData.setSize(WorkspaceJsonFile.length(jsonFile));
+
+        try (JsonParser parser = jsonFactory.createParser(WorkspaceJsonFile.open(jsonFile))) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException(jsonFile.getName() + " does not contain a JSON object");
+            }
+
+            boolean name = false;
+            boolean description = false;
+            boolean lastModifiedDate = false;
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String property = parser.currentName();
+                JsonToken value = parser.nextToken();
+
+                if (NAME_PROPERTY.equals(property)) {
+                    workspaceMetaData.setName(parser.getValueAsString());
+                    name = true;
+                } else if (DESCRIPTION_PROPERTY.equals(property)) {
+                    workspaceMetaData.setDescription(parser.getValueAsString());
+                    description = true;
+                } else if (LAST_MODIFIED_DATE_PROPERTY.equals(property)) {
+                    workspaceMetaData.setLastModifiedDate(DateUtils.parseIsoDate(parser.getValueAsString()));
+                    lastModifiedDate = true;
+                } else if (value == JsonToken.START_OBJECT || value == JsonToken.START_ARRAY) {
+                    if (name && lastModifiedDate) {
+                        // workspaces are serialized with their simple properties first, followed by the
+                        // model/documentation/views/etc, so an empty description isn't going to appear later
+                        break;
+                    }
+                    parser.skipChildren();
+                }
+
+                if (name && description && lastModifiedDate) {
+                    break;
+                }
+            }
+        }
+
+        if (workspaceMetaData.getName() == null) {
+            throw new IOException(jsonFile.getName() + " does not contain a workspace name");
+        }
+
+        if (workspaceMetaData.getDescription() == null) {
+            workspaceMetaData.setDescription("");
+        }
+
+        return workspaceMetaData;
+    }
+
+}
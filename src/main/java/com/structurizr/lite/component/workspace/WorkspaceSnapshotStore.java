@@ -0,0 +1,112 @@
+package com.structurizr.lite.component.workspace;
+
+import com.structurizr.Workspace;
+import com.structurizr.io.json.JsonReader;
+import com.structurizr.util.WorkspaceUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Stores snapshots of parsed DSL workspaces (before layout information is merged in) in the work directory,
+ * so that the DSL doesn't need to be parsed again after a restart if none of its inputs have changed.
+ * Each snapshot has a small binary header (the hash of the DSL inputs, plus the DSL parser version, Lite version
+ * and C4 Framework hash it was created with), followed by the gzip compressed workspace JSON.
+ */
+class WorkspaceSnapshotStore {
+
+    private static final Log log = LogFactory.getLog(WorkspaceSnapshotStore.class);
+
+    private static final String SNAPSHOT_FILENAME = "snapshot";
+    private static final int MAGIC_NUMBER = 0x535a534e;
+    private static final int FORMAT_VERSION = 2;
+
+    private final File workDirectory;
+    private final String parserVersion;
+    private final String liteVersion;
+
+    WorkspaceSnapshotStore(File workDirectory, String parserVersion, String liteVersion) {
+        this.workDirectory = workDirectory;
+        this.parserVersion = parserVersion;
+        this.liteVersion = liteVersion;
+    }
+
+    /**
+     * Loads the snapshot for the given workspace, if it was created from the same inputs.
+     *
+     * @return  a Workspace, or null if there is no matching snapshot
+     */
+    Workspace load(long workspaceId, String hash, String frameworkHash) {
+        File file = getSnapshotFile(workspaceId);
+        if (!file.exists()) {
+            return null;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+            if (in.readInt() != MAGIC_NUMBER || in.readInt() != FORMAT_VERSION) {
+                return null;
+            }
+
+            if (!in.readUTF().equals(hash) || !in.readUTF().equals(parserVersion) || !in.readUTF().equals(liteVersion) || !in.readUTF().equals(frameworkHash)) {
+                log.debug("Snapshot " + file.getAbsolutePath() + " is out of date");
+                return null;
+            }
+
+            try (Reader reader = new InputStreamReader(new GZIPInputStream(in, 64 * 1024), StandardCharsets.UTF_8)) {
+                Workspace workspace = new JsonReader().read(reader);
+                workspace.setId(workspaceId);
+                log.debug("Loaded workspace " + workspaceId + " from " + file.getAbsolutePath());
+
+                return workspace;
+            }
+        } catch (Exception e) {
+            log.warn("Ignoring snapshot " + file.getAbsolutePath() + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    void save(long workspaceId, String hash, String frameworkHash, Workspace workspace) {
+        File file = getSnapshotFile(workspaceId);
+        File tmpFile = new File(file.getParentFile(), SNAPSHOT_FILENAME + ".tmp");
+
+        try {
+            String json = WorkspaceUtils.toJson(workspace, false);
+
+            file.getParentFile().mkdirs();
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmpFile.toPath())))) {
+                out.writeInt(MAGIC_NUMBER);
+                out.writeInt(FORMAT_VERSION);
+                out.writeUTF(hash);
+                out.writeUTF(parserVersion);
+                out.writeUTF(liteVersion);
+                out.writeUTF(frameworkHash);
+
+                OutputStream gzip = new GZIPOutputStream(out, 64 * 1024);
+                gzip.write(json.getBytes(StandardCharsets.UTF_8));
+                gzip.close();
+            }
+
+            Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (Exception e) {
+            log.warn("Could not save snapshot " + file.getAbsolutePath() + ": " + e.getMessage());
+        }
+    }
+
+    private File getSnapshotFile(long workspaceId) {
+        return new File(new File(workDirectory, "" + workspaceId), SNAPSHOT_FILENAME);
+    }
+
+}
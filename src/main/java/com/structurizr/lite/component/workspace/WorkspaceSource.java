@@ -0,0 +1,24 @@
+package com.structurizr.lite.component.workspace;
+
+/**
+ * A content hash of a DSL file, plus every local file it transitively references.
+ */
+final class WorkspaceSource {
+
+    private final String hash;
+    private final long size;
+
+    WorkspaceSource(String hash, long size) {
+        this.hash = hash;
+        this.size = size;
+    }
+
+    String getHash() {
+        return hash;
+    }
+
+    long getSize() {
+        return size;
+    }
+
+}
@@ -0,0 +1,277 @@
+package com.structurizr.lite.component.workspace;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Calculates a content hash for a DSL file and all of the local files it references
+ * (transitively) via !include, !docs, !adrs/!decisions, !script, "workspace extends" and local
+ * theme files. Per-file digests are memoised
+ * against the file size and last modified timestamp, so scanning an unchanged workspace
+ * costs a stat per file rather than a read.
+ */
+class WorkspaceSourceScanner {
+
+    private static final Log log = LogFactory.getLog(WorkspaceSourceScanner.class);
+
+    private static final String HASH_ALGORITHM = "SHA-256";
+
+    // file timestamps can be coarse (e.g. 1 second on some network file systems), so don't trust
+    // a memoised digest if the file was modified this close to when it was read
+    private static final long RACY_TIMESTAMP_WINDOW_IN_MILLISECONDS = 2000;
+
+    private static final String INCLUDE_DIRECTIVE = "!include";
+    private static final String DOCS_DIRECTIVE = "!docs";
+    private static final String ADRS_DIRECTIVE = "!adrs";
+    private static final String DECISIONS_DIRECTIVE = "!decisions";
+    private static final String SCRIPT_DIRECTIVE = "!script";
+    private static final String WORKSPACE_KEYWORD = "workspace";
+    private static final String EXTENDS_KEYWORD = "extends";
+    private static final String THEME_KEYWORD = "theme";
+    private static final String THEMES_KEYWORD = "themes";
+    private static final String DEFAULT_THEME = "default";
+
+    private final Map<File, ScannedFile> scannedFiles = new ConcurrentHashMap<>();
+
+    /**
+     * Scans the given DSL file.
+     *
+     * @param dslFile       the DSL file
+     * @param parameters    any additional values that affect the result of parsing
+     * @return  a WorkspaceSource, or null if any of the references can't be resolved locally (e.g. remote includes)
+     */
+    WorkspaceSource scan(File dslFile, String... parameters) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance(HASH_ALGORITHM);
+            for (String parameter : parameters) {
+                update(digest, parameter);
+            }
+
+            long size = scan(dslFile.getCanonicalFile(), true, digest, new HashSet<>());
+
+            return new WorkspaceSource(HexFormat.of().formatHex(digest.digest()), size);
+        } catch (UnresolvableReferenceException e) {
+            log.debug(dslFile.getAbsolutePath() + " can't be hashed: " + e.getMessage());
+        } catch (Exception e) {
+            log.warn("Could not scan " + dslFile.getAbsolutePath() + ": " + e.getMessage());
+        }
+
+        return null;
+    }
+
+    private long scan(File file, boolean dsl, MessageDigest digest, Set<File> visited) throws Exception {
+        if (!visited.add(file)) {
+            // already included
+            return 0;
+        }
+
+        update(digest, file.getPath());
+
+        if (file.isDirectory()) {
+            long size = 0;
+            File[] files = file.listFiles();
+            if (files != null) {
+                Arrays.sort(files, Comparator.comparing(File::getName));
+                for (File child : files) {
+                    if (!child.getName().startsWith(".")) {
+                        size += scan(child, dsl, digest, visited);
+                    }
+                }
+            }
+
+            return size;
+        }
+
+        if (!file.exists()) {
+            throw new UnresolvableReferenceException("missing file " + file.getPath());
+        }
+
+        ScannedFile scannedFile = getScannedFile(file, dsl);
+        if (scannedFile.unresolvableReference != null) {
+            throw new UnresolvableReferenceException(scannedFile.unresolvableReference);
+        }
+
+        digest.update(scannedFile.digest);
+        long size = scannedFile.length;
+        for (Reference reference : scannedFile.references) {
+            size += scan(reference.file, reference.dsl, digest, visited);
+        }
+
+        return size;
+    }
+
+    private ScannedFile getScannedFile(File file, boolean dsl) throws Exception {
+        long lastModified = file.lastModified();
+        long length = file.length();
+
+        ScannedFile scannedFile = scannedFiles.get(file);
+        if (scannedFile != null && scannedFile.dsl == dsl && scannedFile.isCurrent(lastModified, length)) {
+            return scannedFile;
+        }
+
+        long scannedAt = System.currentTimeMillis();
+        byte[] content = Files.readAllBytes(file.toPath());
+        scannedFile = new ScannedFile(dsl, lastModified, length, scannedAt, MessageDigest.getInstance(HASH_ALGORITHM).digest(content));
+        if (dsl) {
+            findReferences(file, new String(content, StandardCharsets.UTF_8), scannedFile);
+        }
+        scannedFiles.put(file, scannedFile);
+
+        return scannedFile;
+    }
+
+    private void findReferences(File file, String content, ScannedFile scannedFile) throws IOException {
+        boolean inComment = false;
+
+        for (String line : content.split("\n")) {
+            line = line.trim();
+
+            if (inComment) {
+                inComment = !line.contains("*/");
+                continue;
+            }
+
+            if (line.startsWith("/*")) {
+                inComment = !line.contains("*/");
+                continue;
+            }
+
+            // directives and keywords are case-insensitive
+            String[] tokens = line.split("\\s+", 2);
+            String keyword = tokens[0].toLowerCase(Locale.ROOT);
+            String arguments = tokens.length > 1 ? tokens[1] : "";
+
+            List<String> references = new ArrayList<>();
+            boolean dsl;
+            if (keyword.equals(INCLUDE_DIRECTIVE)) {
+                dsl = true;
+                references.add(parseArgument(arguments));
+            } else if (keyword.equals(DOCS_DIRECTIVE) || keyword.equals(ADRS_DIRECTIVE) || keyword.equals(DECISIONS_DIRECTIVE)) {
+                dsl = false;
+                references.add(parseArgument(arguments));
+            } else if (keyword.equals(SCRIPT_DIRECTIVE) && !line.endsWith("{")) {
+                // !script <file> (inline scripts are part of this file's content)
+                dsl = false;
+                references.add(parseArgument(arguments));
+            } else if (keyword.equals(WORKSPACE_KEYWORD) && arguments.toLowerCase(Locale.ROOT).startsWith(EXTENDS_KEYWORD)) {
+                // workspace extends <file|url> {
+                dsl = true;
+                references.add(parseArgument(arguments.substring(EXTENDS_KEYWORD.length()).trim()));
+            } else if (keyword.equals(THEME_KEYWORD) || keyword.equals(THEMES_KEYWORD)) {
+                // remote themes are referenced by URL rather than parsed, so only local theme files are inputs
+                dsl = false;
+                for (String theme : arguments.split("\\s+")) {
+                    theme = theme.replace("\"", "");
+                    if (!theme.isEmpty() && !theme.equalsIgnoreCase(DEFAULT_THEME) && !isUrl(theme)) {
+                        references.add(theme);
+                    }
+                }
+            } else {
+                continue;
+            }
+
+            for (String reference : references) {
+                if (reference.isEmpty()) {
+                    scannedFile.unresolvableReference = "missing argument in " + line;
+                    return;
+                }
+
+                if (isUrl(reference)) {
+                    scannedFile.unresolvableReference = "remote reference " + reference;
+                    return;
+                }
+
+                if (reference.contains("${")) {
+                    scannedFile.unresolvableReference = "variable reference " + reference;
+                    return;
+                }
+
+                scannedFile.references.add(new Reference(new File(file.getParentFile(), reference).getCanonicalFile(), dsl));
+            }
+        }
+    }
+
+    private boolean isUrl(String argument) {
+        String lowerCaseArgument = argument.toLowerCase(Locale.ROOT);
+        return lowerCaseArgument.startsWith("http://") || lowerCaseArgument.startsWith("https://");
+    }
+
+    private String parseArgument(String arguments) {
+        if (arguments.isEmpty()) {
+            return "";
+        } else if (arguments.startsWith("\"")) {
+            int end = arguments.indexOf('"', 1);
+            return end > 0 ? arguments.substring(1, end) : arguments.substring(1);
+        } else {
+            return arguments.split("\\s+")[0];
+        }
+    }
+
+    private void update(MessageDigest digest, String value) {
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte)0);
+    }
+
+    private static final class ScannedFile {
+
+        private final boolean dsl;
+        private final long lastModified;
+        private final long length;
+        private final long scannedAt;
+        private final byte[] digest;
+        private final List<Reference> references = new ArrayList<>();
+        private String unresolvableReference;
+
+        ScannedFile(boolean dsl, long lastModified, long length, long scannedAt, byte[] digest) {
+            this.dsl = dsl;
+            this.lastModified = lastModified;
+            this.length = length;
+            this.scannedAt = scannedAt;
+            this.digest = digest;
+        }
+
+        boolean isCurrent(long lastModified, long length) {
+            return this.lastModified == lastModified &&
+                    this.length == length &&
+                    scannedAt - lastModified > RACY_TIMESTAMP_WINDOW_IN_MILLISECONDS;
+        }
+
+    }
+
+    private static final class Reference {
+
+        private final File file;
+        private final boolean dsl;
+
+        Reference(File file, boolean dsl) {
+            this.file = file;
+            this.dsl = dsl;
+        }
+
+    }
+
+    private static final class UnresolvableReferenceException extends Exception {
+
+        UnresolvableReferenceException(String message) {
+            super(message);
+        }
+
+    }
+
+}
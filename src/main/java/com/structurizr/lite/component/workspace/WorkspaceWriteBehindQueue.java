@@ -0,0 +1,432 @@
+package com.structurizr.lite.component.workspace;
+
+import com.structurizr.Workspace;
+import com.structurizr.util.WorkspaceUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongFunction;
+import java.util.zip.CRC32;
+
+/**
+ * A write-behind queue for workspace JSON files.
+ *
+ * Saves are acknowledged once they have been appended to a journal in the work directory and
+ * synced to disk (concurrent saves share a single fsync). The workspace JSON file is written
+ * shortly afterwards, via a temporary file and an atomic rename, and successive saves of the
+ * same workspace in the meantime are coalesced into a single write. Once a write has landed, the
+ * journal is compacted down to the saves that are still pending, so it doesn't grow without bound
+ * while workspaces are being edited. Any saves remaining in the journal (e.g. after a crash) are
+ * replayed on startup.
+ *
+ * A failed write is retried with exponential backoff. After several attempts, the save is left pending
+ * (so it's still served, and replayed on the next startup) and reported via getWriteError(), until the
+ * workspace is saved again.
+ *
+ * Saves are made from arbitrary (e.g. request) threads, any of which may be interrupted, so files are
+ * written with streams rather than interruptible channels - an interrupt would otherwise close the
+ * journal for every subsequent save.
+ */
+class WorkspaceWriteBehindQueue {
+
+    private static final Log log = LogFactory.getLog(WorkspaceWriteBehindQueue.class);
+
+    private static final String JOURNAL_FILENAME = "workspaces.journal";
+    private static final long FLUSH_DELAY_IN_MILLISECONDS = 1000;
+    private static final long STOP_TIMEOUT_IN_SECONDS = 30;
+    private static final long MAX_RETRY_DELAY_IN_MILLISECONDS = 60000;
+    private static final int MAX_WRITE_ATTEMPTS = 8;
+
+    interface Listener {
+
+        void written(Workspace workspace, File jsonFile, String contentHash);
+
+    }
+
+    private final File journalFile;
+    private final LongFunction<File> jsonFiles;
+    private final Listener listener;
+
+    private final Map<Long, PendingWrite> pendingWrites = new HashMap<>();
+    private final Map<Long, String> writeErrors = new HashMap<>();
+    private final Object journalLock = new Object();
+    private final Object syncLock = new Object();
+    private RandomAccessFile journal;
+    private boolean stopped = false;
+    private long journalWriteSequence = 0;
+    private long journalSyncSequence = 0;
+
+    private ScheduledThreadPoolExecutor executorService;
+
+    WorkspaceWriteBehindQueue(File workDirectory, LongFunction<File> jsonFiles, Listener listener) {
+        this.journalFile = new File(workDirectory, JOURNAL_FILENAME);
+        this.jsonFiles = jsonFiles;
+        this.listener = listener;
+    }
+
+    void start() throws IOException {
+        replay();
+
+        journal = new RandomAccessFile(journalFile, "rw");
+        journal.setLength(0);
+        journal.getFD().sync();
+
+        executorService = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "workspace-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // on stop, pending writes are flushed directly rather than waiting for their scheduled time
+        executorService.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+    }
+
+    void stop() {
+        synchronized (journalLock) {
+            // saves made from now on would never be written
+            stopped = true;
+        }
+
+        if (executorService != null) {
+            // let a write in progress finish, so that it doesn't race with the final flush below
+            executorService.shutdown();
+            try {
+                if (!executorService.awaitTermination(STOP_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS)) {
+                    log.warn("Timed out waiting for the workspace writer to finish");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            executorService = null;
+        }
+
+        for (long workspaceId : getPendingWorkspaceIds()) {
+            flush(workspaceId);
+        }
+
+        synchronized (syncLock) {
+            synchronized (journalLock) {
+                if (journal != null) {
+                    try {
+                        journal.close();
+                    } catch (IOException e) {
+                        log.warn(e);
+                    }
+                    journal = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Queues the given workspace to be written, returning once the save is durable.
+     *
+     * @throws IllegalStateException    if the queue hasn't been started, or has been stopped
+     */
+    void put(Workspace workspace, String contentHash) throws Exception {
+        byte[] json = WorkspaceUtils.toJson(workspace, false).getBytes(StandardCharsets.UTF_8);
+        PendingWrite pendingWrite = new PendingWrite(workspace, json, contentHash);
+        boolean scheduleFlush;
+        long sequence;
+
+        synchronized (journalLock) {
+            if (journal == null || stopped) {
+                throw new IllegalStateException("The workspace write-behind queue is not running");
+            }
+
+            // a save that has failed to be written is retried once the workspace is saved again
+            scheduleFlush = pendingWrites.put(workspace.getId(), pendingWrite) == null || writeErrors.remove(workspace.getId()) != null;
+            journal.seek(journal.length());
+            journal.write(toJournalRecord(workspace.getId(), json));
+            sequence = ++journalWriteSequence;
+        }
+
+        sync(sequence);
+
+        if (scheduleFlush) {
+            scheduleFlush(workspace.getId());
+        }
+    }
+
+    private void scheduleFlush(long workspaceId) {
+        scheduleFlush(workspaceId, FLUSH_DELAY_IN_MILLISECONDS);
+    }
+
+    private void scheduleFlush(long workspaceId, long delayInMilliseconds) {
+        ScheduledThreadPoolExecutor executorService = this.executorService;
+        if (executorService != null && !executorService.isShutdown()) {
+            try {
+                executorService.schedule(() -> flush(workspaceId), delayInMilliseconds, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                // stopping - pending writes are flushed by stop()
+            }
+        }
+    }
+
+    /**
+     * Gets the JSON for a workspace that has been saved, but not yet written to the workspace JSON file.
+     */
+    String getPendingJson(long workspaceId) {
+        synchronized (journalLock) {
+            PendingWrite pendingWrite = pendingWrites.get(workspaceId);
+            return pendingWrite != null ? new String(pendingWrite.json, StandardCharsets.UTF_8) : null;
+        }
+    }
+
+    /**
+     * Gets the reason that a saved workspace couldn't be written to the workspace JSON file, if it has been given up on.
+     */
+    String getWriteError(long workspaceId) {
+        synchronized (journalLock) {
+            return writeErrors.get(workspaceId);
+        }
+    }
+
+    private Long[] getPendingWorkspaceIds() {
+        synchronized (journalLock) {
+            return pendingWrites.keySet().toArray(new Long[0]);
+        }
+    }
+
+    private void sync(long sequence) throws IOException {
+        synchronized (syncLock) {
+            if (journalSyncSequence >= sequence) {
+                // another thread's fsync has already covered this save
+                return;
+            }
+
+            long latestSequence;
+            synchronized (journalLock) {
+                if (journal == null) {
+                    // stopped since the save was journalled, and stopping writes all pending saves
+                    return;
+                }
+
+                latestSequence = journalWriteSequence;
+            }
+
+            journal.getFD().sync();
+            journalSyncSequence = latestSequence;
+        }
+    }
+
+    private void flush(long workspaceId) {
+        PendingWrite pendingWrite;
+        synchronized (journalLock) {
+            pendingWrite = pendingWrites.get(workspaceId);
+        }
+
+        if (pendingWrite == null) {
+            return;
+        }
+
+        File jsonFile = jsonFiles.apply(workspaceId);
+        try {
+            writeAtomically(jsonFile, WorkspaceJsonFile.encode(jsonFile, pendingWrite.json));
+            WorkspaceJsonFile.deleteSuperseded(jsonFile);
+        } catch (Exception e) {
+            writeFailed(workspaceId, pendingWrite, jsonFile, e);
+            return;
+        }
+
+        synchronized (journalLock) {
+            if (pendingWrites.get(workspaceId) == pendingWrite) {
+                pendingWrites.remove(workspaceId);
+            } else {
+                // saved again while being written
+                scheduleFlush(workspaceId);
+            }
+
+        }
+
+        compactJournal();
+
+        try {
+            listener.written(pendingWrite.workspace, jsonFile, pendingWrite.contentHash);
+        } catch (Exception e) {
+            log.warn(e);
+        }
+    }
+
+    private void writeFailed(long workspaceId, PendingWrite pendingWrite, File jsonFile, Exception e) {
+        int attempts = ++pendingWrite.attempts;
+        if (attempts >= MAX_WRITE_ATTEMPTS) {
+            log.error("Could not write " + jsonFile.getAbsolutePath() + " after " + attempts + " attempts - giving up until workspace " + workspaceId + " is saved again", e);
+            synchronized (journalLock) {
+                if (pendingWrites.get(workspaceId) == pendingWrite) {
+                    writeErrors.put(workspaceId, "Could not write " + jsonFile.getName() + ": " + e.getMessage());
+                } else {
+                    // saved again in the meantime, so try again
+                    scheduleFlush(workspaceId);
+                }
+            }
+            return;
+        }
+
+        long delay = Math.min(FLUSH_DELAY_IN_MILLISECONDS << attempts, MAX_RETRY_DELAY_IN_MILLISECONDS);
+        if (attempts == 1) {
+            log.error("Could not write " + jsonFile.getAbsolutePath() + " - retrying", e);
+        } else {
+            log.warn("Could not write " + jsonFile.getAbsolutePath() + " (attempt " + attempts + "): " + e.getMessage() + " - retrying in " + delay + "ms");
+        }
+        scheduleFlush(workspaceId, delay);
+    }
+
+    /**
+     * Rewrites the journal with only the saves that are still pending, once it's more than twice their size.
+     */
+    private void compactJournal() {
+        // the journal file is replaced, so syncs (which happen outside the journal lock) need to be excluded too
+        synchronized (syncLock) {
+            synchronized (journalLock) {
+                if (journal == null) {
+                    return;
+                }
+
+                try {
+                    long pendingLength = 0;
+                    for (PendingWrite pendingWrite : pendingWrites.values()) {
+                        pendingLength += getJournalRecordLength(pendingWrite.json);
+                    }
+
+                    if (pendingLength == 0) {
+                        journal.setLength(0);
+                        return;
+                    }
+
+                    if (journal.length() <= pendingLength * 2) {
+                        return;
+                    }
+
+                    File tmpFile = new File(journalFile.getParentFile(), "." + JOURNAL_FILENAME + ".tmp");
+                    try (FileOutputStream out = new FileOutputStream(tmpFile)) {
+                        for (Map.Entry<Long, PendingWrite> pendingWrite : pendingWrites.entrySet()) {
+                            out.write(toJournalRecord(pendingWrite.getKey(), pendingWrite.getValue().json));
+                        }
+                        out.getFD().sync();
+                    }
+                    Files.move(tmpFile.toPath(), journalFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+                    RandomAccessFile compactedJournal = new RandomAccessFile(journalFile, "rw");
+                    journal.close();
+                    journal = compactedJournal;
+
+                    // every save made so far is either in the compacted journal (which has been synced) or written
+                    journalSyncSequence = journalWriteSequence;
+                } catch (IOException e) {
+                    log.warn("Could not compact " + journalFile.getAbsolutePath() + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void replay() throws IOException {
+        if (!journalFile.exists() || journalFile.length() == 0) {
+            return;
+        }
+
+        // only the most recent save of each workspace needs to be written
+        Map<Long, byte[]> saves = new LinkedHashMap<>();
+        try (DataInputStream in = new DataInputStream(new FileInputStream(journalFile))) {
+            while (true) {
+                long workspaceId = in.readLong();
+                int length = in.readInt();
+                if (length < 0 || length > journalFile.length()) {
+                    log.warn("Ignoring corrupt record in " + journalFile.getAbsolutePath());
+                    break;
+                }
+
+                byte[] json = new byte[length];
+                in.readFully(json);
+                long checksum = in.readLong();
+
+                if (checksum != checksum(workspaceId, json)) {
+                    log.warn("Ignoring corrupt record in " + journalFile.getAbsolutePath());
+                    break;
+                }
+
+                saves.put(workspaceId, json);
+            }
+        } catch (EOFException e) {
+            // the last record may have been partially written
+        }
+
+        for (long workspaceId : saves.keySet()) {
+            File jsonFile = jsonFiles.apply(workspaceId);
+            log.info("Replaying save of workspace " + workspaceId + " to " + jsonFile.getAbsolutePath());
+            writeAtomically(jsonFile, WorkspaceJsonFile.encode(jsonFile, saves.get(workspaceId)));
+            WorkspaceJsonFile.deleteSuperseded(jsonFile);
+        }
+    }
+
+    private static long getJournalRecordLength(byte[] json) {
+        return 8 + 4 + json.length + 8;
+    }
+
+    private byte[] toJournalRecord(long workspaceId, byte[] json) {
+        ByteBuffer buffer = ByteBuffer.allocate((int)getJournalRecordLength(json));
+        buffer.putLong(workspaceId);
+        buffer.putInt(json.length);
+        buffer.put(json);
+        buffer.putLong(checksum(workspaceId, json));
+
+        return buffer.array();
+    }
+
+    private long checksum(long workspaceId, byte[] json) {
+        CRC32 crc = new CRC32();
+        crc.update(ByteBuffer.allocate(8).putLong(workspaceId).array());
+        crc.update(json);
+
+        return crc.getValue();
+    }
+
+    /**
+     * Writes the given content to a file via a synced temporary file and an atomic rename, so that a crash
+     * part way through leaves either the old or the new content in place.
+     */
+    static void writeAtomically(File file, byte[] content) throws IOException {
+        file.getParentFile().mkdirs();
+
+        // dot-prefixed, so that change detection ignores it
+        File tmpFile = new File(file.getParentFile(), "." + file.getName() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(tmpFile)) {
+            out.write(content);
+            out.getFD().sync();
+        }
+
+        Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static final class PendingWrite {
+
+        private final Workspace workspace;
+        private final byte[] json;
+        private final String contentHash;
+        private int attempts = 0; // only accessed by the writer thread
+
+        PendingWrite(Workspace workspace, byte[] json, String contentHash) {
+            this.workspace = workspace;
+            this.json = json;
+            this.contentHash = contentHash;
+        }
+
+    }
+
+}
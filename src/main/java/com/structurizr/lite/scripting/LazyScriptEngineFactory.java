@@ -0,0 +1,117 @@
+package com.structurizr.lite.scripting;
+
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineFactory;
+import java.util.List;
+
+/**
+ * A script engine factory that's registered on the classpath (via META-INF/services) in place of a
+ * scripting runtime's own factory. It answers the name/extension lookups made by the DSL parser without
+ * loading anything, and only loads the runtime when a script engine is actually needed.
+ * For pooled runtimes, the script engine it returns evaluates scripts on engines borrowed from the runtime's pool.
+ */
+public abstract class LazyScriptEngineFactory implements ScriptEngineFactory {
+
+    private final ScriptingRuntime runtime;
+    private final String languageName;
+    private final List<String> names;
+    private final List<String> extensions;
+    private final List<String> mimeTypes;
+
+    LazyScriptEngineFactory(ScriptingRuntime runtime, String languageName, List<String> names, List<String> extensions, List<String> mimeTypes) {
+        this.runtime = runtime;
+        this.languageName = languageName;
+        this.names = names;
+        this.extensions = extensions;
+        this.mimeTypes = mimeTypes;
+    }
+
+    @Override
+    public String getLanguageName() {
+        return languageName;
+    }
+
+    @Override
+    public List<String> getNames() {
+        return names;
+    }
+
+    @Override
+    public List<String> getExtensions() {
+        return extensions;
+    }
+
+    @Override
+    public List<String> getMimeTypes() {
+        return mimeTypes;
+    }
+
+    @Override
+    public String getEngineName() {
+        return runtime.getScriptEngineFactory().getEngineName();
+    }
+
+    @Override
+    public String getEngineVersion() {
+        return runtime.getScriptEngineFactory().getEngineVersion();
+    }
+
+    @Override
+    public String getLanguageVersion() {
+        return runtime.getScriptEngineFactory().getLanguageVersion();
+    }
+
+    @Override
+    public Object getParameter(String key) {
+        return runtime.getScriptEngineFactory().getParameter(key);
+    }
+
+    @Override
+    public String getMethodCallSyntax(String obj, String m, String... args) {
+        return runtime.getScriptEngineFactory().getMethodCallSyntax(obj, m, args);
+    }
+
+    @Override
+    public String getOutputStatement(String toDisplay) {
+        return runtime.getScriptEngineFactory().getOutputStatement(toDisplay);
+    }
+
+    @Override
+    public String getProgram(String... statements) {
+        return runtime.getScriptEngineFactory().getProgram(statements);
+    }
+
+    @Override
+    public ScriptEngine getScriptEngine() {
+        if (runtime.isPooled()) {
+            return new PooledScriptEngine(runtime, this);
+        } else {
+            return runtime.createScriptEngine();
+        }
+    }
+
+    public static final class Groovy extends LazyScriptEngineFactory {
+
+        public Groovy() {
+            super(ScriptingRuntime.GROOVY, "Groovy", List.of("groovy", "Groovy"), List.of("groovy"), List.of("application/x-groovy"));
+        }
+
+    }
+
+    public static final class Kotlin extends LazyScriptEngineFactory {
+
+        public Kotlin() {
+            super(ScriptingRuntime.KOTLIN, "kotlin", List.of("kotlin"), List.of("kts"), List.of("text/x-kotlin"));
+        }
+
+    }
+
+    public static final class JRuby extends LazyScriptEngineFactory {
+
+        public JRuby() {
+            super(ScriptingRuntime.JRUBY, "ruby", List.of("ruby", "jruby"), List.of("rb"), List.of("application/x-ruby"));
+        }
+
+    }
+
+}
@@ -0,0 +1,56 @@
+package com.structurizr.lite.scripting;
+
+import javax.script.AbstractScriptEngine;
+import javax.script.Bindings;
+import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineFactory;
+import javax.script.ScriptException;
+import javax.script.SimpleBindings;
+import java.io.Reader;
+
+/**
+ * A script engine that evaluates each script on an engine borrowed from a scripting runtime's pool, returning
+ * the engine afterwards. The bindings and context belong to this engine, so each evaluation only sees its own.
+ */
+final class PooledScriptEngine extends AbstractScriptEngine {
+
+    private final ScriptingRuntime runtime;
+    private final ScriptEngineFactory scriptEngineFactory;
+
+    PooledScriptEngine(ScriptingRuntime runtime, ScriptEngineFactory scriptEngineFactory) {
+        this.runtime = runtime;
+        this.scriptEngineFactory = scriptEngineFactory;
+    }
+
+    @Override
+    public Object eval(String script, ScriptContext context) throws ScriptException {
+        ScriptEngine scriptEngine = runtime.borrowScriptEngine();
+        try {
+            return scriptEngine.eval(script, context);
+        } finally {
+            runtime.returnScriptEngine(scriptEngine);
+        }
+    }
+
+    @Override
+    public Object eval(Reader reader, ScriptContext context) throws ScriptException {
+        ScriptEngine scriptEngine = runtime.borrowScriptEngine();
+        try {
+            return scriptEngine.eval(reader, context);
+        } finally {
+            runtime.returnScriptEngine(scriptEngine);
+        }
+    }
+
+    @Override
+    public Bindings createBindings() {
+        return new SimpleBindings();
+    }
+
+    @Override
+    public ScriptEngineFactory getFactory() {
+        return scriptEngineFactory;
+    }
+
+}
@@ -0,0 +1,198 @@
+package com.structurizr.lite.scripting;
+
+import com.structurizr.lite.Configuration;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineFactory;
+import java.io.File;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Deque;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+/**
+ * A scripting runtime (e.g. Groovy), packaged as a set of JAR file resources rather than being on the classpath.
+ * The JAR files are extracted to the work directory and loaded into an isolated class loader the first time
+ * the runtime is needed, so that deployments that don't use !script don't pay for runtimes they never use.
+ *
+ * Script engines for pooled runtimes are reused between evaluations, so that a !script doesn't pay for creating
+ * a new engine each time (and, for Groovy, the engine's cache of compiled scripts is reused too). Runtimes whose
+ * engines keep state between evaluations (the Kotlin REPL) aren't pooled.
+ */
+public enum ScriptingRuntime {
+
+    GROOVY("groovy", true),
+    KOTLIN("kotlin", false),
+    JRUBY("jruby", true);
+
+    private static final Log log = LogFactory.getLog(ScriptingRuntime.class);
+
+    private static final String RESOURCES_PATH = "scripting";
+
+    private final String name;
+    private final boolean pooled;
+    private final Deque<ScriptEngine> idleScriptEngines = new ConcurrentLinkedDeque<>();
+    private volatile ScriptEngineFactory scriptEngineFactory;
+    private volatile ClassLoader classLoader;
+
+    ScriptingRuntime(String name, boolean pooled) {
+        this.name = name;
+        this.pooled = pooled;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isLoaded() {
+        return scriptEngineFactory != null;
+    }
+
+    /**
+     * Gets the runtime's script engine factory, loading the runtime if necessary.
+     */
+    ScriptEngineFactory getScriptEngineFactory() {
+        if (scriptEngineFactory == null) {
+            synchronized (this) {
+                if (scriptEngineFactory == null) {
+                    scriptEngineFactory = load();
+                }
+            }
+        }
+
+        return scriptEngineFactory;
+    }
+
+    ClassLoader getClassLoader() {
+        getScriptEngineFactory();
+        return classLoader;
+    }
+
+    boolean isPooled() {
+        return pooled;
+    }
+
+    /**
+     * Creates a new script engine, loading the runtime if necessary.
+     */
+    ScriptEngine createScriptEngine() {
+        ScriptEngineFactory scriptEngineFactory = getScriptEngineFactory();
+
+        // some runtimes (e.g. Kotlin) use the context class loader to find their own classes/JAR files
+        Thread thread = Thread.currentThread();
+        ClassLoader contextClassLoader = thread.getContextClassLoader();
+        thread.setContextClassLoader(classLoader);
+        try {
+            return scriptEngineFactory.getScriptEngine();
+        } finally {
+            thread.setContextClassLoader(contextClassLoader);
+        }
+    }
+
+    /**
+     * Takes an idle script engine from the pool, or creates one if there are none.
+     */
+    ScriptEngine borrowScriptEngine() {
+        ScriptEngine scriptEngine = idleScriptEngines.pollFirst();
+        if (scriptEngine == null) {
+            scriptEngine = createScriptEngine();
+        }
+
+        return scriptEngine;
+    }
+
+    void returnScriptEngine(ScriptEngine scriptEngine) {
+        // DSL parses (and so script evaluations) are bounded by the parse threads, so more idle engines than that aren't needed
+        if (idleScriptEngines.size() < Configuration.getInstance().getDslParseThreads()) {
+            idleScriptEngines.offerFirst(scriptEngine);
+        }
+    }
+
+    private ScriptEngineFactory load() {
+        long startTime = System.currentTimeMillis();
+        long metaspaceBefore = getMetaspaceUsed();
+        int classesBefore = ManagementFactory.getClassLoadingMXBean().getLoadedClassCount();
+
+        try {
+            List<URL> urls = extractJarFiles();
+            if (urls.isEmpty()) {
+                throw new IllegalStateException("The " + name + " scripting runtime is not available");
+            }
+
+            URLClassLoader runtimeClassLoader = new URLClassLoader("scripting-" + name, urls.toArray(new URL[0]), ScriptingRuntime.class.getClassLoader());
+            ScriptEngineFactory factory = null;
+            for (ScriptEngineFactory candidate : ServiceLoader.load(ScriptEngineFactory.class, runtimeClassLoader)) {
+                // skip factories from the parent class loader (i.e. the lazy factories that delegate here)
+                if (candidate.getClass().getClassLoader() == runtimeClassLoader) {
+                    factory = candidate;
+                    break;
+                }
+            }
+
+            if (factory == null) {
+                runtimeClassLoader.close();
+                throw new IllegalStateException("No script engine was found in the " + name + " scripting runtime");
+            }
+
+            classLoader = runtimeClassLoader;
+
+            log.info(String.format("Loaded %s scripting runtime in %dms (%d classes, %dKB metaspace)",
+                    name,
+                    System.currentTimeMillis() - startTime,
+                    ManagementFactory.getClassLoadingMXBean().getLoadedClassCount() - classesBefore,
+                    (getMetaspaceUsed() - metaspaceBefore) / 1024));
+
+            return factory;
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not load the " + name + " scripting runtime: " + e.getMessage(), e);
+        }
+    }
+
+    private List<URL> extractJarFiles() throws Exception {
+        // the JAR files are nested inside the WAR file, so they need to be extracted to be loaded (the Kotlin compiler also needs real files)
+        File directory = new File(new File(Configuration.getInstance().getWorkDirectory(), RESOURCES_PATH), name);
+        directory.mkdirs();
+
+        List<URL> urls = new ArrayList<>();
+        PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver(ScriptingRuntime.class.getClassLoader());
+        for (Resource resource : resolver.getResources("classpath*:" + RESOURCES_PATH + "/" + name + "/*.jar")) {
+            File file = new File(directory, resource.getFilename());
+            if (!file.exists() || file.length() != resource.contentLength()) {
+                File tmpFile = new File(directory, "." + file.getName() + ".tmp");
+                try (InputStream in = resource.getInputStream()) {
+                    Files.copy(in, tmpFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                }
+                Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+
+            urls.add(file.toURI().toURL());
+        }
+
+        return urls;
+    }
+
+    private static long getMetaspaceUsed() {
+        for (MemoryPoolMXBean memoryPool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if ("Metaspace".equals(memoryPool.getName())) {
+                return memoryPool.getUsage().getUsed();
+            }
+        }
+
+        return 0;
+    }
+
+}
@@ -1,6 +1,8 @@
 package com.structurizr.lite.util;
 
 import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.TimeZone;
@@ -40,4 +42,16 @@ public class DateUtils {
         }
     }
 
+    public static Date parseIsoDate(String s) {
+        if (s != null) {
+            try {
+                return Date.from(Instant.parse(s));
+            } catch (DateTimeParseException e) {
+                return null;
+            }
+        } else {
+            return null;
+        }
+    }
+
 }
\ No newline at end of file
@@ -1,10 +1,16 @@
 package com.structurizr.lite.web;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.structurizr.Workspace;
+import com.structurizr.inspection.Violation;
 import com.structurizr.io.WorkspaceReaderException;
 import com.structurizr.io.json.JsonReader;
 import com.structurizr.lite.Configuration;
+import com.structurizr.lite.component.workspace.ViewLayout;
 import com.structurizr.lite.component.workspace.WorkspaceComponentException;
+import com.structurizr.lite.component.workspace.WorkspaceInspections;
 import com.structurizr.util.StringUtils;
 import com.structurizr.util.WorkspaceUtils;
 import org.apache.commons.logging.Log;
@@ -18,16 +24,21 @@ import java.util.Base64;
 
 /**
  * An implementation of the Structurizr web API, consisting of two operations to
- * get and put JSON workspace definitions.
+ * get and put JSON workspace definitions, plus operations to update the layout
+ * of a single view and to get the results of inspecting a workspace.
  *
  *  - GET /api/workspace/{id}
  *  - PUT /api/workspace/{id}
+ *  - PATCH /api/workspace/{id}/views/{key}/layout
+ *  - GET /api/workspace/{id}/inspections
  */
 @RestController
 public class ApiController extends AbstractController {
 
     private static Log log = LogFactory.getLog(ApiController.class);
 
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
     @RequestMapping(value = "/api/workspace/{workspaceId}", method = RequestMethod.GET, produces = "application/json; charset=UTF-8")
     public String getWorkspace(@PathVariable("workspaceId") long workspaceId,
                                HttpServletRequest request, HttpServletResponse response) {
@@ -71,6 +82,47 @@ public class ApiController extends AbstractController {
         }
     }
 
+    @RequestMapping(value = "/api/workspace/{workspaceId}/views/{viewKey}/layout", method = RequestMethod.PATCH, consumes = "application/json", produces = "application/json; charset=UTF-8")
+    public @ResponseBody ApiResponse putViewLayout(@PathVariable("workspaceId")long workspaceId, @PathVariable("viewKey") String viewKey, @RequestBody String json, HttpServletRequest request, HttpServletResponse response) {
+        try {
+            authoriseRequest("PATCH", getPath(request, workspaceId) + "/views/" + viewKey + "/layout", json, request, response);
+
+            ViewLayout viewLayout = objectMapper.readValue(json, ViewLayout.class);
+            workspaceComponent.putViewLayout(workspaceId, viewKey, viewLayout);
+
+            return new ApiResponse("OK");
+        } catch (Exception e) {
+            log.error(e);
+            throw new ApiException(e.getMessage());
+        }
+    }
+
+    @RequestMapping(value = "/api/workspace/{workspaceId}/inspections", method = RequestMethod.GET, produces = "application/json; charset=UTF-8")
+    public String getInspections(@PathVariable("workspaceId") long workspaceId,
+                                 HttpServletRequest request, HttpServletResponse response) {
+        try {
+            authoriseRequest("GET", getPath(request, workspaceId) + "/inspections", null, request, response);
+
+            WorkspaceInspections inspections = workspaceComponent.getInspections(workspaceId);
+
+            ObjectNode json = objectMapper.createObjectNode();
+            json.put("numberOfInspections", inspections.getNumberOfInspections());
+            json.put("numberOfViolations", inspections.getNumberOfViolations());
+            ArrayNode violations = json.putArray("violations");
+            for (Violation violation : inspections.getViolations()) {
+                ObjectNode node = violations.addObject();
+                node.put("severity", violation.getSeverity().toString());
+                node.put("type", violation.getType());
+                node.put("message", violation.getMessage());
+            }
+
+            return objectMapper.writeValueAsString(json);
+        } catch (Exception e) {
+            log.error(e);
+            throw new ApiException(e.getMessage());
+        }
+    }
+
     private void authoriseRequest(String httpMethod, String path, String content, HttpServletRequest request, HttpServletResponse response) throws WorkspaceComponentException {
         try {
             String authorizationHeaderAsString = request.getHeader(HttpHeaders.X_AUTHORIZATION);
@@ -109,7 +109,8 @@ public class DecisionsController extends AbstractController {
         model.addAttribute("workspace", workspaceMetaData);
         model.addAttribute("urlPrefix", calculateUrlPrefix(workspaceId));
         model.addAttribute("autoRefreshInterval", Configuration.getInstance().getAutoRefreshInterval());
-        model.addAttribute("autoRefreshLastModifiedDate", workspaceComponent.getLastModifiedDate());
+        model.addAttribute("autoRefreshLastModifiedDate", workspaceComponent.getLastModifiedDate(workspaceId));
+        model.addAttribute("autoRefreshUrl", calculateUrlPrefix(workspaceId) + "/lastModified");
 
         return "decisions";
     }
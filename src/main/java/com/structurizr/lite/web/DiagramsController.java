@@ -60,7 +60,8 @@ public class DiagramsController extends AbstractController {
         model.addAttribute("perspective", HtmlUtils.filterHtml(perspective));
         model.addAttribute("autoSaveInterval", Configuration.getInstance().getAutoSaveInterval());
         model.addAttribute("autoRefreshInterval", Configuration.getInstance().getAutoRefreshInterval());
-        model.addAttribute("autoRefreshLastModifiedDate", workspaceComponent.getLastModifiedDate());
+        model.addAttribute("autoRefreshLastModifiedDate", workspaceComponent.getLastModifiedDate(workspaceId));
+        model.addAttribute("autoRefreshUrl", calculateUrlPrefix(workspaceId) + "/lastModified");
         model.addAttribute("inspectionSummary", true);
 
         return "diagrams";
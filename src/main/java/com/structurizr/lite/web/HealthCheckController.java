@@ -1,5 +1,9 @@
 package com.structurizr.lite.web;
 
+import com.structurizr.lite.component.startup.StartupComponent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.ui.ModelMap;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
@@ -8,9 +12,25 @@ import org.springframework.web.bind.annotation.RestController;
 @RestController
 public class HealthCheckController extends AbstractController {
 
+    private StartupComponent startupComponent;
+
+    @Autowired
+    public void setStartupComponent(StartupComponent startupComponent) {
+        this.startupComponent = startupComponent;
+    }
+
     @RequestMapping(value = "/health", method = RequestMethod.GET, produces = "text/plain")
     public String showHealthCheckPage(ModelMap model) {
         return "OK";
     }
 
-}
\ No newline at end of file
+    @RequestMapping(value = "/ready", method = RequestMethod.GET, produces = "text/plain")
+    public ResponseEntity<String> showReadinessCheckPage() {
+        if (startupComponent.isReady()) {
+            return ResponseEntity.ok("OK");
+        } else {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(startupComponent.getStatus());
+        }
+    }
+
+}
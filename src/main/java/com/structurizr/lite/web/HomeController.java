@@ -17,8 +17,6 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 
-import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 
 @Controller
@@ -41,9 +39,11 @@ public class HomeController extends AbstractController {
         if (Configuration.getInstance().isSingleWorkspace()) {
             return showWorkspace(1, model);
         } else {
-            List<WorkspaceMetaData> workspaces = workspaceComponent.getWorkspaces();
             sort = determineSort(sort);
-            workspaces = sortAndPaginate(new ArrayList<>(workspaces), sort, pageNumber, pageSize, model);
+
+            // the workspace component returns a shared, already sorted list, so only the requested page is taken from it
+            List<WorkspaceMetaData> workspaces = SORT_DATE.equals(sort) ? workspaceComponent.getWorkspacesByLastModifiedDate() : workspaceComponent.getWorkspaces();
+            workspaces = paginate(workspaces, pageNumber, pageSize, model);
 
             model.addAttribute("workspaces", workspaces);
             model.addAttribute("numberOfWorkspaces", workspaces.size());
@@ -55,13 +55,7 @@ public class HomeController extends AbstractController {
         }
     }
 
-    private List<WorkspaceMetaData> sortAndPaginate(List<WorkspaceMetaData> workspaces, String sort, int pageNumber, int pageSize, ModelMap model) {
-        if (SORT_DATE.equals(sort)) {
-            workspaces.sort((wmd1, wmd2) -> wmd2.getLastModifiedDate().compareTo(wmd1.getLastModifiedDate()));
-        } else {
-            workspaces.sort(Comparator.comparing(wmd -> wmd.getName().toLowerCase()));
-        }
-
+    private List<WorkspaceMetaData> paginate(List<WorkspaceMetaData> workspaces, int pageNumber, int pageSize, ModelMap model) {
         if (workspaces.isEmpty() || pageSize >= workspaces.size()) {
             return workspaces;
         } else {
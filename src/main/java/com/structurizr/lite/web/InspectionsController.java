@@ -1,11 +1,10 @@
 package com.structurizr.lite.web;
 
 import com.structurizr.Workspace;
-import com.structurizr.inspection.DefaultInspector;
-import com.structurizr.inspection.Inspector;
 import com.structurizr.inspection.Severity;
-import com.structurizr.inspection.Violation;
 import com.structurizr.lite.Configuration;
+import com.structurizr.lite.component.workspace.WorkspaceComponentException;
+import com.structurizr.lite.component.workspace.WorkspaceInspections;
 import com.structurizr.lite.domain.WorkspaceMetaData;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.ModelMap;
@@ -13,9 +12,6 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 
-import java.util.Comparator;
-import java.util.List;
-
 @Controller
 public class InspectionsController extends AbstractController {
 
@@ -32,23 +28,24 @@ public class InspectionsController extends AbstractController {
         workspaceMetaData.setApiKey(Configuration.getInstance().getApiKey());
         workspaceMetaData.setApiSecret(Configuration.getInstance().getApiSecret());
 
-        Workspace workspace = workspaceComponent.getWorkspace(1, false);
-        if (workspace == null) {
-            model.addAttribute("error", workspaceComponent.getError());
-        } else {
-            Inspector inspector = new DefaultInspector(workspace);
-            List<Violation> violations = inspector.getViolations();
-            violations.sort(Comparator.comparing(Violation::getSeverity));
-            model.addAttribute("violations", violations);
-            model.addAttribute("numberOfInspections", inspector.getNumberOfInspections());
-            model.addAttribute("numberOfViolations", violations.size());
-            model.addAttribute("numberOfErrors", violations.stream().filter(r -> r.getSeverity() == Severity.ERROR).count());
-            model.addAttribute("numberOfWarnings", violations.stream().filter(r -> r.getSeverity() == Severity.WARNING).count());
-            model.addAttribute("numberOfInfos", violations.stream().filter(r -> r.getSeverity() == Severity.INFO).count());
-            model.addAttribute("numberOfIgnores", violations.stream().filter(r -> r.getSeverity() == Severity.IGNORE).count());
-
-            workspaceMetaData.setName(workspace.getName());
-            workspaceMetaData.setDescription(workspace.getDescription());
+        try {
+            WorkspaceInspections inspections = workspaceComponent.getInspections(workspaceId);
+            model.addAttribute("violations", inspections.getViolations());
+            model.addAttribute("numberOfInspections", inspections.getNumberOfInspections());
+            model.addAttribute("numberOfViolations", inspections.getNumberOfViolations());
+            model.addAttribute("numberOfErrors", inspections.getNumberOfViolations(Severity.ERROR));
+            model.addAttribute("numberOfWarnings", inspections.getNumberOfViolations(Severity.WARNING));
+            model.addAttribute("numberOfInfos", inspections.getNumberOfViolations(Severity.INFO));
+            model.addAttribute("numberOfIgnores", inspections.getNumberOfViolations(Severity.IGNORE));
+
+            // the workspace is cached, so this doesn't parse it again
+            Workspace workspace = workspaceComponent.getWorkspace(workspaceId, false);
+            if (workspace != null) {
+                workspaceMetaData.setName(workspace.getName());
+                workspaceMetaData.setDescription(workspace.getDescription());
+            }
+        } catch (WorkspaceComponentException e) {
+            model.addAttribute("error", e.getMessage());
         }
 
         addCommonAttributes(model, "Structurizr Lite", true);
@@ -56,7 +53,8 @@ public class InspectionsController extends AbstractController {
         model.addAttribute("workspace", workspaceMetaData);
         model.addAttribute("urlPrefix", calculateUrlPrefix(workspaceId));
         model.addAttribute("autoRefreshInterval", Configuration.getInstance().getAutoRefreshInterval());
-        model.addAttribute("autoRefreshLastModifiedDate", workspaceComponent.getLastModifiedDate());
+        model.addAttribute("autoRefreshLastModifiedDate", workspaceComponent.getLastModifiedDate(workspaceId));
+        model.addAttribute("autoRefreshUrl", calculateUrlPrefix(workspaceId) + "/lastModified");
 
         return "inspections";
     }
@@ -32,7 +32,8 @@ public class ModelController extends AbstractController {
         model.addAttribute("workspace", workspaceMetaData);
         model.addAttribute("urlPrefix", calculateUrlPrefix(workspaceId));
         model.addAttribute("autoRefreshInterval", Configuration.getInstance().getAutoRefreshInterval());
-        model.addAttribute("autoRefreshLastModifiedDate", workspaceComponent.getLastModifiedDate());
+        model.addAttribute("autoRefreshLastModifiedDate", workspaceComponent.getLastModifiedDate(workspaceId));
+        model.addAttribute("autoRefreshUrl", calculateUrlPrefix(workspaceId) + "/lastModified");
 
         return "model";
     }
@@ -1,6 +1,7 @@
 package com.structurizr.lite.web;
 
 import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.ResponseBody;
@@ -15,4 +16,10 @@ public class WorkspaceLastModifiedController extends AbstractController {
         return "" + workspaceComponent.getLastModifiedDate();
     }
 
+    @RequestMapping(value = "/workspace/{workspaceId}/lastModified", method = RequestMethod.GET, produces = "plain/text; charset=UTF-8")
+    @ResponseBody
+    public String lastModified(@PathVariable("workspaceId") long workspaceId) {
+        return "" + workspaceComponent.getLastModifiedDate(workspaceId);
+    }
+
 }
\ No newline at end of file
@@ -15,7 +15,11 @@ import org.springframework.util.FileSystemUtils;
 
 import java.io.File;
 import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -36,6 +40,7 @@ public class ApacheLuceneSearchComponentTests {
 
     @AfterEach
     public void tearDown() {
+        searchComponent.stop();
         FileSystemUtils.deleteRecursively(dataDirectory);
     }
 
@@ -91,6 +96,53 @@ public class ApacheLuceneSearchComponentTests {
         assertEquals(0, results.size());
     }
 
+    @Test
+    public void search_ReturnsConsistentResults_WhileWorkspacesAreBeingIndexedConcurrently() throws Exception {
+        for (int i = 1; i <= 10; i++) {
+            Workspace workspace = new Workspace("Name", "Description");
+            workspace.setId(i);
+            searchComponent.index(workspace);
+        }
+
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                final long workspaceId = 1 + (i % 10);
+                futures.add(executorService.submit(() -> {
+                    // re-indexing a workspace replaces its documents atomically
+                    Workspace workspace = new Workspace("Name", "Description");
+                    workspace.setId(workspaceId);
+                    searchComponent.index(workspace);
+
+                    return searchComponent.search("name", null).size();
+                }));
+            }
+
+            for (Future<Integer> future : futures) {
+                assertEquals(10, future.get());
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void search_SearchesSegmentsInParallel_WhenConfigured() throws Exception {
+        searchComponent.stop();
+        Files.writeString(new File(dataDirectory, "structurizr.properties").toPath(), "structurizr.search.threads=4");
+        searchComponent = new ApacheLuceneSearchComponentImpl(dataDirectory);
+
+        for (int i = 1; i <= 10; i++) {
+            Workspace workspace = new Workspace("Name " + i, "Description");
+            workspace.setId(i);
+            searchComponent.index(workspace);
+        }
+
+        assertEquals(10, searchComponent.search("name", null).size());
+        assertEquals(1, searchComponent.search("description AND 7", null).size());
+    }
+
     @Test
     public void search_WorkspaceDocumentation() throws Exception {
         String content =
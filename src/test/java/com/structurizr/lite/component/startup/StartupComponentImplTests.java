@@ -0,0 +1,185 @@
+package com.structurizr.lite.component.startup;
+
+import com.structurizr.Workspace;
+import com.structurizr.lite.Configuration;
+import com.structurizr.lite.component.workspace.ViewLayout;
+import com.structurizr.lite.component.workspace.WorkspaceComponent;
+import com.structurizr.lite.component.workspace.WorkspaceInspections;
+import com.structurizr.lite.domain.WorkspaceMetaData;
+import com.structurizr.lite.util.Image;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StartupComponentImplTests {
+
+    private static class WarmUpRecordingWorkspaceComponent implements WorkspaceComponent {
+
+        private final int numberOfWorkspaces;
+        private final CountDownLatch latch;
+        private final Set<Long> workspacesWarmedUp = ConcurrentHashMap.newKeySet();
+
+        WarmUpRecordingWorkspaceComponent(int numberOfWorkspaces, CountDownLatch latch) {
+            this.numberOfWorkspaces = numberOfWorkspaces;
+            this.latch = latch;
+        }
+
+        @Override
+        public void start() {
+        }
+
+        @Override
+        public List<WorkspaceMetaData> getWorkspaces() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public List<WorkspaceMetaData> getWorkspacesByLastModifiedDate() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public Set<Long> getWorkspaceIds() {
+            Set<Long> workspaceIds = new TreeSet<>();
+            for (long id = 1; id <= numberOfWorkspaces; id++) {
+                workspaceIds.add(id);
+            }
+
+            return workspaceIds;
+        }
+
+        @Override
+        public Workspace getWorkspace(long workspaceId, boolean preferJson) {
+            return null;
+        }
+
+        @Override
+        public WorkspaceInspections getInspections(long workspaceId) {
+            return null;
+        }
+
+        @Override
+        public void warmUp(Collection<Long> workspaceIds, LongConsumer listener) {
+            try {
+                latch.await();
+            } catch (InterruptedException e) {
+                return;
+            }
+
+            for (long workspaceId : workspaceIds) {
+                workspacesWarmedUp.add(workspaceId);
+                listener.accept(workspaceId);
+            }
+        }
+
+        @Override
+        public void putWorkspace(Workspace workspace) {
+        }
+
+        @Override
+        public void putViewLayout(long workspaceId, String viewKey, ViewLayout viewLayout) {
+        }
+
+        @Override
+        public String getError() {
+            return null;
+        }
+
+        @Override
+        public Image getImage(long workspaceId, String filename) {
+            return null;
+        }
+
+        @Override
+        public boolean putImage(long workspaceId, String filename, String imageAsBase64) {
+            return false;
+        }
+
+        @Override
+        public long getLastModifiedDate() {
+            return 0;
+        }
+
+        @Override
+        public long getLastModifiedDate(long workspaceId) {
+            return 0;
+        }
+
+    }
+
+    private File directory;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        directory = Files.createTempDirectory(Paths.get("build"), getClass().getSimpleName()).toFile();
+        Configuration.init(directory);
+        Files.writeString(directory.toPath().resolve("structurizr.properties"), "structurizr.workspaces=*\nstructurizr.c4framework.enabled=false\nstructurizr.scripting.warmUp=");
+    }
+
+    @AfterEach
+    void tearDown() {
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Test
+    void start_WarmsUpAllWorkspaces_AndReportsReadyWhenFinished() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        WarmUpRecordingWorkspaceComponent workspaceComponent = new WarmUpRecordingWorkspaceComponent(5, latch);
+        StartupComponentImpl startupComponent = new StartupComponentImpl(workspaceComponent, null);
+
+        startupComponent.start();
+        assertFalse(startupComponent.isReady());
+
+        latch.countDown();
+        long timeout = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(30);
+        while (!startupComponent.isReady() && System.currentTimeMillis() < timeout) {
+            Thread.sleep(10);
+        }
+
+        assertTrue(startupComponent.isReady());
+        assertEquals(Set.of(1L, 2L, 3L, 4L, 5L), workspaceComponent.workspacesWarmedUp);
+        assertEquals("""
+                graphviz: done
+                c4framework: done
+                scripting: done
+                workspaces: done
+                """, startupComponent.getStatus());
+    }
+
+    @Test
+    void getStatus_ReportsWorkspaceProgress_WhileWarmingUp() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        StartupComponentImpl startupComponent = new StartupComponentImpl(new WarmUpRecordingWorkspaceComponent(3, latch), null);
+
+        try {
+            startupComponent.start();
+            long timeout = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(30);
+            while (!startupComponent.getStatus().contains("workspaces: running (0/3)") && System.currentTimeMillis() < timeout) {
+                Thread.sleep(10);
+            }
+
+            assertTrue(startupComponent.getStatus().contains("workspaces: running (0/3)"));
+            assertFalse(startupComponent.isReady());
+        } finally {
+            latch.countDown();
+            startupComponent.stop();
+        }
+    }
+
+}
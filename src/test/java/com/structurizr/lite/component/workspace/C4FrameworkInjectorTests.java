@@ -0,0 +1,163 @@
+package com.structurizr.lite.component.workspace;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class C4FrameworkInjectorTests {
+
+    private final C4FrameworkInjector injector = new C4FrameworkInjector("// header\n", "<model block>\n", "<views block>\n");
+
+    private String inject(String dsl) throws Exception {
+        StringWriter writer = new StringWriter();
+        assertEquals(C4FrameworkInjector.Result.INJECTED, injector.inject(new StringReader(dsl), writer));
+
+        return writer.toString();
+    }
+
+    @Test
+    void inject_InsertsTheBlocksAfterTheModelAndViewsLines() throws Exception {
+        String dsl = inject("""
+                workspace {
+                    model {
+                        user = person "User"
+                    }
+                    views {
+                        systemLandscape {
+                            include *
+                        }
+                    }
+                }
+                """);
+
+        assertEquals("""
+                // header
+                workspace {
+                    model {
+                <model block>
+                        user = person "User"
+                    }
+                    views {
+                <views block>
+                        systemLandscape {
+                            include *
+                        }
+                    }
+                }
+                """, dsl);
+    }
+
+    @Test
+    void inject_FindsBlocksThatAreNotOnTheirOwnLine() throws Exception {
+        String dsl = inject("""
+                workspace "Name" "Description" { model{
+                        user = person "User"
+                    } views   {
+                    }
+                }
+                """);
+
+        assertEquals("""
+                // header
+                workspace "Name" "Description" { model{
+                <model block>
+                        user = person "User"
+                    } views   {
+                <views block>
+                    }
+                }
+                """, dsl);
+    }
+
+    @Test
+    void inject_InsertsTheBlocksInsideBlocksOpenedAndClosedOnOneLine() throws Exception {
+        String dsl = inject("""
+                workspace {
+                    model { user = person "User" }
+                    views { }
+                }
+                """);
+
+        assertEquals("""
+                // header
+                workspace {
+                    model {
+                <model block>
+                 user = person "User" }
+                    views {
+                <views block>
+                 }
+                }
+                """, dsl);
+    }
+
+    @Test
+    void inject_IgnoresKeywordsAndBracesInStringsCommentsAndNestedBlocks() throws Exception {
+        String dsl = inject("""
+                workspace {
+                    // model {
+                    /* views {
+                    } */
+                    !identifiers hierarchical
+                    model {
+                        models = softwareSystem "model {" {
+                            views = container "views }"
+                        }
+                    }
+                    views {
+                    }
+                }
+                """);
+
+        assertEquals("""
+                // header
+                workspace {
+                    // model {
+                    /* views {
+                    } */
+                    !identifiers hierarchical
+                    model {
+                <model block>
+                        models = softwareSystem "model {" {
+                            views = container "views }"
+                        }
+                    }
+                    views {
+                <views block>
+                    }
+                }
+                """, dsl);
+    }
+
+    @Test
+    void inject_ReturnsOptedOut_WhenTheDslOptsOut() throws Exception {
+        String dsl = """
+                workspace {
+                    model {
+                    }
+                    // !c4framework:disable
+                }
+                """;
+
+        assertEquals(C4FrameworkInjector.Result.OPTED_OUT, injector.inject(new StringReader(dsl), new StringWriter()));
+    }
+
+    @Test
+    void inject_ReturnsAlreadyIncluded_WhenTheDslIncludesTheFramework() throws Exception {
+        String dsl = """
+                workspace {
+                    model {
+                        archetypes {
+                            !include c4framework/persons/cliente-person.dsl
+                        }
+                    }
+                }
+                """;
+
+        assertEquals(C4FrameworkInjector.Result.ALREADY_INCLUDED, injector.inject(new StringReader(dsl), new StringWriter()));
+    }
+
+}
@@ -0,0 +1,92 @@
+package com.structurizr.lite.component.workspace;
+
+import com.structurizr.lite.Configuration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class C4FrameworkServiceTests {
+
+    private static final String DSL = "workspace {\n    model {\n    }\n    views {\n    }\n}\n";
+
+    private File directory;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        directory = Files.createTempDirectory(Paths.get("build"), getClass().getSimpleName()).toFile();
+        Configuration.init(directory);
+    }
+
+    @AfterEach
+    void tearDown() {
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Test
+    void injectFramework_IncludesThePreExpandedBundle() throws Exception {
+        File workDirectory = new File(directory, ".structurizr");
+
+        String dsl = new C4FrameworkService().injectFramework(DSL);
+
+        Matcher matcher = Pattern.compile("!include (c4framework/bundle/[0-9a-f]+)/archetypes.dsl").matcher(dsl);
+        assertTrue(matcher.find());
+        String bundlePath = matcher.group(1);
+        assertTrue(dsl.contains("!include " + bundlePath + "/styles.dsl"));
+        assertTrue(dsl.contains("!include " + bundlePath + "/terminology.dsl"));
+        assertFalse(dsl.contains("!include c4framework/persons/"));
+
+        String archetypes = Files.readString(new File(workDirectory, bundlePath + "/archetypes.dsl").toPath());
+        assertTrue(archetypes.contains("// persons/arquiteto-person.dsl"));
+        assertTrue(archetypes.contains("// components/event-component.dsl"));
+    }
+
+    @Test
+    void injectFramework_ReusesTheBundle_WhenTheFrameworkHasNotChanged() throws Exception {
+        File workDirectory = new File(directory, ".structurizr");
+        File bundlesDirectory = new File(workDirectory, "c4framework/bundle");
+        new File(bundlesDirectory, "0123456789abcdef").mkdirs(); // a bundle for a previous framework version
+
+        String dsl1 = new C4FrameworkService().injectFramework(DSL);
+        String dsl2 = new C4FrameworkService().injectFramework(DSL);
+
+        assertEquals(dsl1, dsl2);
+        assertEquals(1, bundlesDirectory.listFiles().length);
+    }
+
+    @Test
+    void extractFrameworkResources_RewritesOnlyTheFilesThatHaveChanged() throws Exception {
+        File frameworkDirectory = new File(new File(directory, ".structurizr"), "c4framework");
+        new C4FrameworkService().extractFrameworkResources();
+
+        File manifestFile = new File(frameworkDirectory, "manifest.json");
+        assertTrue(manifestFile.exists());
+        File changedFile = new File(frameworkDirectory, "persons/arquiteto-person.dsl");
+        File unchangedFile = new File(frameworkDirectory, "persons/cliente-person.dsl");
+        File removedFile = new File(frameworkDirectory, "persons/removed-person.dsl");
+
+        // simulate files extracted from a previous version of the framework
+        Files.writeString(changedFile.toPath(), "// old version");
+        Files.writeString(removedFile.toPath(), "// old version");
+        unchangedFile.setLastModified(1000);
+        String manifest = Files.readString(manifestFile.toPath());
+        manifest = manifest.replaceFirst("\"persons/arquiteto-person.dsl\":\"[0-9a-f]+\"", "\"persons/arquiteto-person.dsl\":\"old\",\"persons/removed-person.dsl\":\"old\"");
+        Files.writeString(manifestFile.toPath(), manifest);
+
+        new C4FrameworkService().extractFrameworkResources();
+
+        assertNotEquals("// old version", Files.readString(changedFile.toPath()));
+        assertFalse(removedFile.exists());
+        assertEquals(1000, unchangedFile.lastModified());
+        assertFalse(Files.readString(manifestFile.toPath()).contains("\"old\""));
+    }
+
+}
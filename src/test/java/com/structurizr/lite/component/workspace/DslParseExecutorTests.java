@@ -0,0 +1,115 @@
+package com.structurizr.lite.component.workspace;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DslParseExecutorTests {
+
+    @Test
+    void execute_ReturnsTheResultOfTheParse() throws Exception {
+        DslParseExecutor dslParseExecutor = new DslParseExecutor(1, 1, Duration.ofSeconds(10));
+        try {
+            assertEquals("Workspace", dslParseExecutor.execute("workspace 1", () -> "Workspace"));
+        } finally {
+            dslParseExecutor.stop();
+        }
+    }
+
+    @Test
+    void execute_ThrowsTheExceptionFromTheParse() {
+        DslParseExecutor dslParseExecutor = new DslParseExecutor(1, 1, Duration.ofSeconds(10));
+        try {
+            Exception e = assertThrows(IllegalStateException.class, () -> dslParseExecutor.execute("workspace 1", () -> {
+                throw new IllegalStateException("Unexpected tokens");
+            }));
+            assertEquals("Unexpected tokens", e.getMessage());
+        } finally {
+            dslParseExecutor.stop();
+        }
+    }
+
+    @Test
+    void execute_CancelsTheParse_WhenItTimesOut() throws Exception {
+        DslParseExecutor dslParseExecutor = new DslParseExecutor(1, 1, Duration.ofMillis(100));
+        CountDownLatch interrupted = new CountDownLatch(1);
+        try {
+            WorkspaceComponentException e = assertThrows(WorkspaceComponentException.class, () -> dslParseExecutor.execute("workspace 1", () -> {
+                try {
+                    Thread.sleep(10000);
+                } catch (InterruptedException ie) {
+                    interrupted.countDown();
+                }
+                return null;
+            }));
+
+            assertEquals("Parsing did not complete within 0 second(s)", e.getMessage());
+            assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        } finally {
+            dslParseExecutor.stop();
+        }
+    }
+
+    @Test
+    void execute_WaitsForRoom_WhenTheQueueIsFull() throws Exception {
+        DslParseExecutor dslParseExecutor = new DslParseExecutor(1, 1, Duration.ofSeconds(10));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            Thread running = new Thread(() -> {
+                try {
+                    dslParseExecutor.execute("workspace 1", () -> {
+                        started.countDown();
+                        return release.await(10, TimeUnit.SECONDS);
+                    });
+                } catch (Exception e) {
+                    // ignore
+                }
+            });
+            running.start();
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            Thread queued = new Thread(() -> {
+                try {
+                    dslParseExecutor.execute("workspace 2", () -> true);
+                } catch (Exception e) {
+                    // ignore
+                }
+            });
+            queued.start();
+
+            // wait for the second parse to be queued
+            long deadline = System.currentTimeMillis() + 5000;
+            while (queued.getState() != Thread.State.TIMED_WAITING && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+
+            // the third parse waits for room in the queue, rather than being rejected
+            AtomicBoolean result = new AtomicBoolean();
+            Thread waiting = new Thread(() -> {
+                try {
+                    result.set(dslParseExecutor.execute("workspace 3", () -> true));
+                } catch (Exception e) {
+                    // ignore
+                }
+            });
+            waiting.start();
+            Thread.sleep(200);
+            assertTrue(waiting.isAlive());
+
+            release.countDown();
+            waiting.join(5000);
+            assertTrue(result.get());
+            running.join(5000);
+            queued.join(5000);
+        } finally {
+            dslParseExecutor.stop();
+        }
+    }
+
+}
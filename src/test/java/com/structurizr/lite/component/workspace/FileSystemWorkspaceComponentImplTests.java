@@ -4,14 +4,29 @@ import com.structurizr.Workspace;
 import com.structurizr.lite.Configuration;
 import com.structurizr.lite.component.search.SearchComponent;
 import com.structurizr.lite.component.search.SearchResult;
+import com.structurizr.lite.domain.WorkspaceMetaData;
+import com.structurizr.model.Person;
+import com.structurizr.util.WorkspaceUtils;
+import com.structurizr.view.SystemLandscapeView;
+import com.sun.net.httpserver.HttpServer;
 import org.junit.jupiter.api.Test;
 
 import java.io.File;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -28,6 +43,56 @@ public class FileSystemWorkspaceComponentImplTests {
         }
     }
 
+    private static class CountingSearchComponent extends NoopSearchComponent {
+        private int numberOfIndexRequests = 0;
+
+        @Override
+        public void index(Workspace workspace) {
+            numberOfIndexRequests++;
+        }
+    }
+
+    private static class CountingC4FrameworkService extends C4FrameworkService {
+        private final AtomicInteger numberOfParses = new AtomicInteger();
+        private String frameworkHash = "framework";
+
+        @Override
+        public String getFrameworkHash() {
+            return frameworkHash;
+        }
+
+        @Override
+        public boolean isAutoIncludeEnabled() {
+            // called once per parse; slow the parse down so that concurrent requests overlap with it
+            numberOfParses.incrementAndGet();
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            return false;
+        }
+    }
+
+    private Path createDirectory(String properties) throws Exception {
+        Path tmpdir = Files.createTempDirectory(Paths.get("build"), getClass().getSimpleName());
+        Configuration.init(tmpdir.toFile());
+        if (properties != null) {
+            Files.writeString(tmpdir.resolve("structurizr.properties"), properties);
+        }
+
+        return tmpdir;
+    }
+
+    private FileSystemWorkspaceComponentImpl createWorkspaceComponent() {
+        return createWorkspaceComponent(new NoopSearchComponent(), new C4FrameworkService());
+    }
+
+    private FileSystemWorkspaceComponentImpl createWorkspaceComponent(SearchComponent searchComponent, C4FrameworkService c4FrameworkService) {
+        return new FileSystemWorkspaceComponentImpl(searchComponent, c4FrameworkService);
+    }
+
     @Test
     void getImage_ThrowsException_WhenRequestingAFileThatIsNotAnImage() throws Exception {
         Path tmpdir = Files.createTempDirectory(Paths.get("build"), getClass().getSimpleName());
@@ -62,4 +127,284 @@ public class FileSystemWorkspaceComponentImplTests {
         }
     }
 
+    @Test
+    void getWorkspace_ReturnsTheCachedWorkspace_WhenTheDslHasNotChanged() throws Exception {
+        Path tmpdir = createDirectory("structurizr.c4framework.enabled=false");
+        WorkspaceComponent workspaceComponent = createWorkspaceComponent();
+
+        Workspace workspace = workspaceComponent.getWorkspace(1, false);
+        assertNotNull(workspace);
+        assertSame(workspace, workspaceComponent.getWorkspace(1, false));
+
+        Files.writeString(tmpdir.resolve("workspace.dsl"), "workspace \"New name\" {\n\n    model {\n    }\n\n}\n");
+        Workspace updatedWorkspace = workspaceComponent.getWorkspace(1, false);
+        assertNotSame(workspace, updatedWorkspace);
+        assertEquals("New name", updatedWorkspace.getName());
+    }
+
+    @Test
+    void getWorkspace_ReusesTheC4FrameworkDslFile_WhenTheDslHasNotChanged() throws Exception {
+        Path tmpdir = createDirectory("structurizr.cache.maxEntries=0");
+        Files.writeString(tmpdir.resolve("workspace.dsl"), "workspace {\n    model {\n    }\n    views {\n    }\n}\n");
+        WorkspaceComponent workspaceComponent = createWorkspaceComponent();
+
+        workspaceComponent.getWorkspace(1, false);
+        File c4FrameworkDslFile = tmpdir.resolve(".structurizr").resolve("c4framework-workspace-1.dsl").toFile();
+        assertTrue(c4FrameworkDslFile.exists());
+        c4FrameworkDslFile.setLastModified(1000);
+
+        // force the DSL to be parsed again
+        Files.deleteIfExists(tmpdir.resolve(".structurizr").resolve("1").resolve("snapshot"));
+        workspaceComponent.getWorkspace(1, false);
+        assertEquals(1000, c4FrameworkDslFile.lastModified());
+
+        File[] temporaryFiles = tmpdir.resolve(".structurizr").toFile().listFiles((dir, name) -> name.startsWith("workspace-"));
+        assertEquals(0, temporaryFiles.length);
+    }
+
+    @Test
+    void start_DeletesTemporaryDslFiles() throws Exception {
+        Path tmpdir = createDirectory("structurizr.c4framework.enabled=false");
+        Files.createDirectories(tmpdir.resolve(".structurizr"));
+        File temporaryFile = Files.writeString(tmpdir.resolve(".structurizr").resolve("workspace-1234567890.dsl"), "workspace {\n}\n").toFile();
+
+        createWorkspaceComponent();
+
+        long timeout = System.currentTimeMillis() + 10000;
+        while (temporaryFile.exists() && System.currentTimeMillis() < timeout) {
+            Thread.sleep(10);
+        }
+        assertFalse(temporaryFile.exists());
+    }
+
+    @Test
+    void getInspections_ReturnsTheCachedResults_WhenTheDslHasNotChanged() throws Exception {
+        Path tmpdir = createDirectory("structurizr.c4framework.enabled=false");
+        Files.writeString(tmpdir.resolve("workspace.dsl"), "workspace {\n    model {\n        user = person \"User\"\n    }\n}\n");
+        WorkspaceComponent workspaceComponent = createWorkspaceComponent();
+
+        WorkspaceInspections inspections = workspaceComponent.getInspections(1);
+        assertTrue(inspections.getNumberOfInspections() > 0);
+        assertTrue(inspections.getNumberOfViolations() > 0); // e.g. the person has no description
+        assertSame(inspections, workspaceComponent.getInspections(1));
+
+        Files.writeString(tmpdir.resolve("workspace.dsl"), "workspace {\n    model {\n        user = person \"User\" \"A user.\"\n    }\n}\n");
+        assertNotSame(inspections, workspaceComponent.getInspections(1));
+    }
+
+    @Test
+    void getWorkspace_SharesASingleParse_WhenCalledConcurrently() throws Exception {
+        createDirectory("structurizr.c4framework.enabled=false");
+        CountingC4FrameworkService c4FrameworkService = new CountingC4FrameworkService();
+
+        assertConcurrentRequestsShareASingleParse(c4FrameworkService);
+    }
+
+    @Test
+    void getWorkspace_SharesASingleParse_WhenTheWorkspaceCannotBeCached() throws Exception {
+        createDirectory("structurizr.c4framework.enabled=false");
+        CountingC4FrameworkService c4FrameworkService = new CountingC4FrameworkService();
+        c4FrameworkService.frameworkHash = null; // the workspace source isn't scanned, so parsed workspaces aren't cached
+
+        assertConcurrentRequestsShareASingleParse(c4FrameworkService);
+    }
+
+    private void assertConcurrentRequestsShareASingleParse(CountingC4FrameworkService c4FrameworkService) throws Exception {
+        WorkspaceComponent workspaceComponent = createWorkspaceComponent(new NoopSearchComponent(), c4FrameworkService);
+
+        int numberOfRequests = 8;
+        ExecutorService executorService = Executors.newFixedThreadPool(numberOfRequests);
+        CountDownLatch latch = new CountDownLatch(1);
+        List<Future<Workspace>> futures = new ArrayList<>();
+        for (int i = 0; i < numberOfRequests; i++) {
+            futures.add(executorService.submit(() -> {
+                latch.await();
+                return workspaceComponent.getWorkspace(1, false);
+            }));
+        }
+        latch.countDown();
+
+        try {
+            Workspace workspace = futures.get(0).get(10, TimeUnit.SECONDS);
+            assertNotNull(workspace);
+            for (Future<Workspace> future : futures) {
+                assertSame(workspace, future.get(10, TimeUnit.SECONDS));
+            }
+            assertEquals(1, c4FrameworkService.numberOfParses.get());
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    void getWorkspace_DoesNotRewriteTheJson_WhenTheParsedWorkspaceHasNotChanged() throws Exception {
+        Path tmpdir = createDirectory("structurizr.c4framework.enabled=false");
+        CountingSearchComponent searchComponent = new CountingSearchComponent();
+        FileSystemWorkspaceComponentImpl workspaceComponent = createWorkspaceComponent(searchComponent, new C4FrameworkService());
+
+        workspaceComponent.getWorkspace(1, false);
+        workspaceComponent.stop();
+        File jsonFile = tmpdir.resolve("workspace.json").toFile();
+        String json = Files.readString(jsonFile.toPath());
+        long lastModified = jsonFile.lastModified();
+        assertEquals(1, searchComponent.numberOfIndexRequests);
+
+        // a new instance (i.e. a restart) parses the DSL again, but has nothing to write
+        searchComponent = new CountingSearchComponent();
+        workspaceComponent = createWorkspaceComponent(searchComponent, new C4FrameworkService());
+
+        workspaceComponent.getWorkspace(1, false);
+        assertEquals(json, Files.readString(jsonFile.toPath()));
+        assertEquals(lastModified, jsonFile.lastModified());
+        assertEquals(1, searchComponent.numberOfIndexRequests);
+        workspaceComponent.stop();
+    }
+
+    @Test
+    void getWorkspace_IncludesRemoteContent() throws Exception {
+        Path tmpdir = createDirectory("structurizr.c4framework.enabled=false");
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/model.dsl", exchange -> {
+            byte[] bytes = "user = person \"User\"".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "text/plain");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+            exchange.close();
+        });
+        server.start();
+
+        try {
+            Files.writeString(tmpdir.resolve("workspace.dsl"), "workspace {\n    model {\n        !include http://localhost:" + server.getAddress().getPort() + "/model.dsl\n    }\n}\n");
+            WorkspaceComponent workspaceComponent = createWorkspaceComponent();
+
+            Workspace workspace = workspaceComponent.getWorkspace(1, false);
+            assertNotNull(workspace);
+            assertNotNull(workspace.getModel().getPersonWithName("User"));
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void getWorkspace_ParsesTheDslAgain_WhenTheC4FrameworkHasChanged() throws Exception {
+        createDirectory("structurizr.c4framework.enabled=false");
+        CountingC4FrameworkService c4FrameworkService = new CountingC4FrameworkService();
+        FileSystemWorkspaceComponentImpl workspaceComponent = createWorkspaceComponent(new NoopSearchComponent(), c4FrameworkService);
+        workspaceComponent.getWorkspace(1, false);
+        workspaceComponent.stop();
+        assertEquals(1, c4FrameworkService.numberOfParses.get());
+
+        // a restart with the same framework uses the snapshot
+        c4FrameworkService = new CountingC4FrameworkService();
+        workspaceComponent = createWorkspaceComponent(new NoopSearchComponent(), c4FrameworkService);
+        workspaceComponent.getWorkspace(1, false);
+        workspaceComponent.stop();
+        assertEquals(0, c4FrameworkService.numberOfParses.get());
+
+        // but a restart with a different framework (e.g. after an upgrade) doesn't
+        c4FrameworkService = new CountingC4FrameworkService();
+        c4FrameworkService.frameworkHash = "new-framework";
+        workspaceComponent = createWorkspaceComponent(new NoopSearchComponent(), c4FrameworkService);
+        workspaceComponent.getWorkspace(1, false);
+        workspaceComponent.stop();
+        assertEquals(1, c4FrameworkService.numberOfParses.get());
+    }
+
+    @Test
+    void saveWorkspaceCatalog_PersistsTheContentHashOfWrittenWorkspaces() throws Exception {
+        Path tmpdir = createDirectory("structurizr.c4framework.enabled=false");
+        FileSystemWorkspaceComponentImpl workspaceComponent = createWorkspaceComponent();
+        workspaceComponent.getWorkspace(1, false);
+
+        // without a restart
+        workspaceComponent.saveWorkspaceCatalog();
+        WorkspaceCatalog workspaceCatalog = new WorkspaceCatalog(tmpdir.resolve(".structurizr").toFile());
+        workspaceCatalog.load();
+        assertNotNull(workspaceCatalog.getContentHash(1, tmpdir.resolve("workspace.json").toFile()));
+        workspaceComponent.stop();
+    }
+
+    @Test
+    void getWorkspaces_ReturnsTheSameSortedList_UntilAWorkspaceChanges() throws Exception {
+        Path tmpdir = createDirectory("structurizr.workspaces=*\nstructurizr.c4framework.enabled=false");
+        Files.createDirectories(tmpdir.resolve("1"));
+        Files.createDirectories(tmpdir.resolve("2"));
+        WorkspaceUtils.saveWorkspaceToJson(new Workspace("B", "Description"), tmpdir.resolve("1").resolve("workspace.json").toFile());
+        WorkspaceUtils.saveWorkspaceToJson(new Workspace("a", "Description"), tmpdir.resolve("2").resolve("workspace.json").toFile());
+        FileSystemWorkspaceComponentImpl workspaceComponent = createWorkspaceComponent();
+
+        List<WorkspaceMetaData> workspaces = workspaceComponent.getWorkspaces();
+        assertEquals(List.of("a", "B"), workspaces.stream().map(WorkspaceMetaData::getName).toList());
+        assertSame(workspaces, workspaceComponent.getWorkspaces());
+
+        Workspace workspace = new Workspace("C", "Description");
+        workspace.setId(2);
+        workspaceComponent.putWorkspace(workspace);
+        assertEquals(List.of("B", "C"), workspaceComponent.getWorkspaces().stream().map(WorkspaceMetaData::getName).toList());
+        assertEquals(2, workspaceComponent.getWorkspacesByLastModifiedDate().get(0).getId());
+        workspaceComponent.stop();
+    }
+
+    @Test
+    void putViewLayout_UpdatesTheLayoutOfASingleView() throws Exception {
+        Path tmpdir = createDirectory(null);
+        Workspace workspace = new Workspace("Name", "Description");
+        Person user = workspace.getModel().addPerson("User");
+        SystemLandscapeView view = workspace.getViews().createSystemLandscapeView("SystemLandscape", "Description");
+        view.addAllElements();
+        WorkspaceUtils.saveWorkspaceToJson(workspace, tmpdir.resolve("workspace.json").toFile());
+        WorkspaceComponent workspaceComponent = createWorkspaceComponent();
+
+        ViewLayout.ElementLayout elementLayout = new ViewLayout.ElementLayout();
+        elementLayout.setId(user.getId());
+        elementLayout.setX(100);
+        elementLayout.setY(200);
+        ViewLayout viewLayout = new ViewLayout();
+        viewLayout.getElements().add(elementLayout);
+        workspaceComponent.putViewLayout(1, "SystemLandscape", viewLayout);
+
+        workspace = workspaceComponent.getWorkspace(1, true);
+        view = workspace.getViews().getSystemLandscapeViews().iterator().next();
+        assertEquals(100, view.getElementView(workspace.getModel().getElementWithId(user.getId())).getX());
+        assertEquals(200, view.getElementView(workspace.getModel().getElementWithId(user.getId())).getY());
+
+        try {
+            workspaceComponent.putViewLayout(1, "SystemContext", viewLayout);
+            fail();
+        } catch (WorkspaceComponentException e) {
+            assertEquals("A view with the key \"SystemContext\" does not exist", e.getMessage());
+        }
+    }
+
+    @Test
+    void putViewLayout_WritesOnlyTheLayoutFile_WhenUsingSidecarLayoutStorage() throws Exception {
+        Path tmpdir = createDirectory("structurizr.c4framework.enabled=false\nstructurizr.layoutStorage=sidecar");
+        Files.writeString(tmpdir.resolve("workspace.dsl"), "workspace {\n    model {\n        user = person \"User\"\n    }\n    views {\n        systemLandscape \"SystemLandscape\" {\n            include *\n        }\n    }\n}\n");
+        WorkspaceComponent workspaceComponent = createWorkspaceComponent();
+
+        Workspace workspace = workspaceComponent.getWorkspace(1, false);
+        File layoutFile = tmpdir.resolve(".structurizr").resolve("1").resolve("layout.json").toFile();
+        assertTrue(layoutFile.exists());
+        assertFalse(tmpdir.resolve("workspace.json").toFile().exists());
+
+        ViewLayout.ElementLayout elementLayout = new ViewLayout.ElementLayout();
+        elementLayout.setId(workspace.getModel().getPersonWithName("User").getId());
+        elementLayout.setX(100);
+        elementLayout.setY(200);
+        ViewLayout viewLayout = new ViewLayout();
+        viewLayout.getElements().add(elementLayout);
+        workspaceComponent.putViewLayout(1, "SystemLandscape", viewLayout);
+        assertFalse(tmpdir.resolve("workspace.json").toFile().exists());
+
+        workspace = workspaceComponent.getWorkspace(1, false);
+        SystemLandscapeView view = workspace.getViews().getSystemLandscapeViews().iterator().next();
+        assertEquals(100, view.getElementView(workspace.getModel().getPersonWithName("User")).getX());
+        assertEquals(200, view.getElementView(workspace.getModel().getPersonWithName("User")).getY());
+
+        // each save uses its own temp file, which doesn't outlive the save
+        assertEquals(0, layoutFile.getParentFile().listFiles((dir, name) -> name.endsWith(".tmp")).length);
+    }
+
 }
@@ -0,0 +1,67 @@
+package com.structurizr.lite.component.workspace;
+
+import com.structurizr.Workspace;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParsedWorkspaceCacheTests {
+
+    @Test
+    void get_ReturnsNull_WhenTheKeyDoesNotMatch() {
+        ParsedWorkspaceCache cache = new ParsedWorkspaceCache(10, 1000);
+        Workspace workspace = new Workspace("Name", "Description");
+        cache.put(1, "abc", 100, workspace);
+
+        assertSame(workspace, cache.get(1, "abc"));
+        assertNull(cache.get(1, "def"));
+        assertNull(cache.get(2, "abc"));
+    }
+
+    @Test
+    void put_EvictsTheLeastRecentlyUsedEntry_WhenTheMaximumNumberOfEntriesIsExceeded() {
+        ParsedWorkspaceCache cache = new ParsedWorkspaceCache(2, 1000);
+        cache.put(1, "1", 100, new Workspace("1", ""));
+        cache.put(2, "2", 100, new Workspace("2", ""));
+        cache.get(1, "1");
+        cache.put(3, "3", 100, new Workspace("3", ""));
+
+        assertEquals(2, cache.getNumberOfEntries());
+        assertNotNull(cache.get(1, "1"));
+        assertNull(cache.get(2, "2"));
+        assertNotNull(cache.get(3, "3"));
+    }
+
+    @Test
+    void put_EvictsEntries_WhenTheMaximumSizeIsExceeded() {
+        ParsedWorkspaceCache cache = new ParsedWorkspaceCache(10, 1000);
+        cache.put(1, "1", 400, new Workspace("1", ""));
+        cache.put(2, "2", 400, new Workspace("2", ""));
+        cache.put(3, "3", 400, new Workspace("3", ""));
+
+        assertEquals(2, cache.getNumberOfEntries());
+        assertEquals(800, cache.getSize());
+        assertNull(cache.get(1, "1"));
+    }
+
+    @Test
+    void put_DoesNotCacheWorkspacesLargerThanTheMaximumSize() {
+        ParsedWorkspaceCache cache = new ParsedWorkspaceCache(10, 1000);
+        cache.put(1, "1", 2000, new Workspace("1", ""));
+
+        assertEquals(0, cache.getNumberOfEntries());
+        assertEquals(0, cache.getSize());
+    }
+
+    @Test
+    void put_ReplacesTheExistingEntryForAWorkspace() {
+        ParsedWorkspaceCache cache = new ParsedWorkspaceCache(10, 1000);
+        cache.put(1, "1", 400, new Workspace("1", ""));
+        cache.put(1, "2", 300, new Workspace("1", ""));
+
+        assertEquals(1, cache.getNumberOfEntries());
+        assertEquals(300, cache.getSize());
+        assertNull(cache.get(1, "1"));
+    }
+
+}
@@ -0,0 +1,114 @@
+package com.structurizr.lite.component.workspace;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RemoteContentCacheTests {
+
+    private static final String CONTENT = "person \"User\"";
+    private static final String ETAG = "\"v1\"";
+
+    private HttpServer server;
+    private String url;
+    private File directory;
+    private volatile int status = 200;
+    private final List<String> requests = Collections.synchronizedList(new ArrayList<>());
+
+    @BeforeEach
+    void setUp() throws Exception {
+        directory = Files.createTempDirectory(Paths.get("build"), getClass().getSimpleName()).toFile();
+
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/model.dsl", exchange -> {
+            String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+            requests.add(ifNoneMatch != null ? ifNoneMatch : "");
+
+            if (status != 200) {
+                exchange.sendResponseHeaders(status, -1);
+            } else if (ETAG.equals(ifNoneMatch)) {
+                exchange.sendResponseHeaders(304, -1);
+            } else {
+                byte[] bytes = CONTENT.getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "text/plain");
+                exchange.getResponseHeaders().add("ETag", ETAG);
+                exchange.sendResponseHeaders(200, bytes.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(bytes);
+                }
+            }
+            exchange.close();
+        });
+        server.start();
+
+        url = "http://localhost:" + server.getAddress().getPort() + "/model.dsl";
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    private RemoteContentCache createCache(Duration maxAge, Duration staleIfError, boolean offline) {
+        return new RemoteContentCache(directory, maxAge, staleIfError, offline, Duration.ofSeconds(5));
+    }
+
+    @Test
+    void get_ReturnsCachedContent_WhenTheContentIsYoungerThanTheMaxAge() throws Exception {
+        RemoteContentCache cache = createCache(Duration.ofMinutes(5), Duration.ZERO, false);
+
+        assertEquals(CONTENT, cache.get(url).getContent());
+        assertEquals(CONTENT, cache.get(url).getContent());
+        assertEquals("text/plain", cache.get(url).getContentType());
+        assertEquals(1, requests.size());
+    }
+
+    @Test
+    void get_RevalidatesTheContent_WhenTheContentIsOlderThanTheMaxAge() throws Exception {
+        RemoteContentCache cache = createCache(Duration.ZERO, Duration.ZERO, false);
+
+        assertEquals(CONTENT, cache.get(url).getContent());
+        assertEquals(CONTENT, cache.get(url).getContent());
+        assertEquals(List.of("", ETAG), requests);
+    }
+
+    @Test
+    void get_ReturnsStaleContent_WhenTheServerFailsWithinTheStaleIfErrorPeriod() throws Exception {
+        assertEquals(CONTENT, createCache(Duration.ZERO, Duration.ofMinutes(5), false).get(url).getContent());
+
+        status = 500;
+        assertEquals(CONTENT, createCache(Duration.ZERO, Duration.ofMinutes(5), false).get(url).getContent());
+        assertEquals(2, requests.size());
+
+        assertThrows(IOException.class, () -> createCache(Duration.ZERO, Duration.ZERO, false).get(url));
+    }
+
+    @Test
+    void get_OnlyReturnsCachedContent_WhenOffline() throws Exception {
+        assertThrows(IOException.class, () -> createCache(Duration.ZERO, Duration.ZERO, true).get(url));
+        assertEquals(0, requests.size());
+
+        createCache(Duration.ZERO, Duration.ZERO, false).get(url);
+
+        assertEquals(CONTENT, createCache(Duration.ZERO, Duration.ZERO, true).get(url).getContent());
+        assertEquals(1, requests.size());
+    }
+
+}
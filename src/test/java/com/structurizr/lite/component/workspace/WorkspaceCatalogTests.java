@@ -0,0 +1,76 @@
+package com.structurizr.lite.component.workspace;
+
+import com.structurizr.lite.domain.WorkspaceMetaData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Date;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WorkspaceCatalogTests {
+
+    private File directory;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        directory = Files.createTempDirectory(Paths.get("build"), getClass().getSimpleName()).toFile();
+    }
+
+    @AfterEach
+    void tearDown() {
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Test
+    void get_ReturnsNull_WhenTheSourceFileHasChanged() throws Exception {
+        File source = new File(directory, "workspace.json");
+        Files.writeString(source.toPath(), "{}");
+
+        WorkspaceCatalog catalog = new WorkspaceCatalog(directory);
+        catalog.put(1, createWorkspaceMetaData(1), source);
+        assertEquals("Name", catalog.get(1, source).getName());
+        assertEquals(2, catalog.get(1, source).getSize());
+
+        Files.writeString(source.toPath(), "{ }");
+        assertNull(catalog.get(1, source));
+        assertNull(catalog.get(2, source));
+    }
+
+    @Test
+    void save_PersistsTheCatalog() throws Exception {
+        File source = new File(directory, "workspace.json");
+        Files.writeString(source.toPath(), "{}");
+
+        WorkspaceCatalog catalog = new WorkspaceCatalog(directory);
+        catalog.put(1, createWorkspaceMetaData(1), source);
+        catalog.put(2, createWorkspaceMetaData(2), source);
+        catalog.retainAll(Set.of(1L));
+        catalog.save();
+
+        catalog = new WorkspaceCatalog(directory);
+        catalog.load();
+        WorkspaceMetaData workspaceMetaData = catalog.get(1, source);
+        assertEquals(1, workspaceMetaData.getId());
+        assertEquals("Name", workspaceMetaData.getName());
+        assertEquals("Description", workspaceMetaData.getDescription());
+        assertEquals(new Date(1234567890000L), workspaceMetaData.getLastModifiedDate());
+        assertNull(catalog.get(2, source));
+    }
+
+    private WorkspaceMetaData createWorkspaceMetaData(long workspaceId) {
+        WorkspaceMetaData workspaceMetaData = new WorkspaceMetaData(workspaceId);
+        workspaceMetaData.setName("Name");
+        workspaceMetaData.setDescription("Description");
+        workspaceMetaData.setLastModifiedDate(new Date(1234567890000L));
+
+        return workspaceMetaData;
+    }
+
+}
@@ -0,0 +1,70 @@
+package com.structurizr.lite.component.workspace;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WorkspaceChangeDetectorTests {
+
+    private File dataDirectory;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dataDirectory = Files.createTempDirectory(Paths.get("build"), getClass().getSimpleName()).toFile();
+    }
+
+    @AfterEach
+    void tearDown() {
+        FileSystemUtils.deleteRecursively(dataDirectory);
+    }
+
+    @Test
+    void poll_TracksTheLastModifiedDateOfEachWorkspace() throws Exception {
+        File workspace1 = write(new File(dataDirectory, "1"), "workspace.dsl", 1000000);
+        File workspace2 = write(new File(dataDirectory, "2-name"), "workspace.dsl", 2000000);
+
+        WorkspaceChangeDetector changeDetector = new WorkspaceChangeDetector(dataDirectory, "workspace", false, WorkspaceChangeDetector.MODE_POLL);
+        changeDetector.start();
+
+        assertEquals(1000000, changeDetector.getLastModifiedDate(1));
+        assertEquals(2000000, changeDetector.getLastModifiedDate(2));
+        assertEquals(0, changeDetector.getLastModifiedDate(3));
+        assertEquals(2000000, changeDetector.getLastModifiedDate());
+
+        workspace1.setLastModified(3000000);
+        changeDetector.poll();
+        assertEquals(3000000, changeDetector.getLastModifiedDate(1));
+        assertEquals(2000000, changeDetector.getLastModifiedDate(2));
+        assertEquals(3000000, changeDetector.getLastModifiedDate());
+    }
+
+    @Test
+    void poll_IgnoresTheJsonFile_WhenTheDslFileExists() throws Exception {
+        write(dataDirectory, "workspace.dsl", 1000000);
+        write(dataDirectory, "workspace.json", 2000000);
+        write(new File(dataDirectory, ".structurizr"), "workspace.json", 3000000);
+
+        WorkspaceChangeDetector changeDetector = new WorkspaceChangeDetector(dataDirectory, "workspace", true, WorkspaceChangeDetector.MODE_POLL);
+        changeDetector.start();
+
+        assertEquals(1000000, changeDetector.getLastModifiedDate(1));
+        assertEquals(1000000, changeDetector.getLastModifiedDate());
+    }
+
+    private File write(File directory, String filename, long lastModified) throws Exception {
+        directory.mkdirs();
+        File file = new File(directory, filename);
+        Files.writeString(file.toPath(), "");
+        file.setLastModified(lastModified);
+
+        return file;
+    }
+
+}
@@ -0,0 +1,104 @@
+package com.structurizr.lite.component.workspace;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WorkspaceDirectoryIndexTests {
+
+    private File dataDirectory;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dataDirectory = Files.createTempDirectory(Paths.get("build"), getClass().getSimpleName()).toFile();
+    }
+
+    @AfterEach
+    void tearDown() {
+        FileSystemUtils.deleteRecursively(dataDirectory);
+    }
+
+    @Test
+    void get() throws Exception {
+        File directory1 = new File(dataDirectory, "1");
+        File directory2 = new File(dataDirectory, "2-name");
+        directory1.mkdir();
+        directory2.mkdir();
+        new File(dataDirectory, "3-name").createNewFile();
+        new File(dataDirectory, "name").mkdir();
+
+        WorkspaceDirectoryIndex index = new WorkspaceDirectoryIndex(dataDirectory);
+        index.rebuild();
+
+        assertEquals(directory1, index.get(1));
+        assertEquals(directory2, index.get(2));
+        assertEquals(new File(dataDirectory, "3"), index.get(3));
+        assertEquals(Set.of(1L, 2L), index.getWorkspaceIds());
+    }
+
+    @Test
+    void get_ReturnsNewDirectories() throws Exception {
+        WorkspaceDirectoryIndex index = new WorkspaceDirectoryIndex(dataDirectory);
+        index.rebuild();
+        assertEquals(Set.of(), index.getWorkspaceIds());
+
+        // without an update
+        File directory1 = new File(dataDirectory, "1-name");
+        directory1.mkdir();
+        assertEquals(directory1, index.get(1));
+
+        // with an update
+        File directory2 = new File(dataDirectory, "2-name");
+        directory2.mkdir();
+        index.update(directory2);
+        assertEquals(directory2, index.get(2));
+        assertEquals(Set.of(1L, 2L), index.getWorkspaceIds());
+    }
+
+    @Test
+    void update_RemovesDeletedDirectories() throws Exception {
+        File directory = new File(dataDirectory, "1-name");
+        directory.mkdir();
+
+        WorkspaceDirectoryIndex index = new WorkspaceDirectoryIndex(dataDirectory);
+        index.rebuild();
+        assertEquals(directory, index.get(1));
+
+        directory.delete();
+        index.update(directory);
+        assertEquals(new File(dataDirectory, "1"), index.get(1));
+    }
+
+    @Test
+    void get_PrefersTheDirectoryNamedAfterTheWorkspaceId() throws Exception {
+        File directory = new File(dataDirectory, "1");
+        File namedDirectory = new File(dataDirectory, "1-name");
+        directory.mkdir();
+        namedDirectory.mkdir();
+
+        WorkspaceDirectoryIndex index = new WorkspaceDirectoryIndex(dataDirectory);
+        index.rebuild();
+        assertEquals(directory, index.get(1));
+
+        // regardless of the order of updates
+        index.update(namedDirectory);
+        assertEquals(directory, index.get(1));
+
+        directory.delete();
+        index.update(directory);
+        assertEquals(namedDirectory, index.get(1));
+
+        directory.mkdir();
+        index.update(directory);
+        assertEquals(directory, index.get(1));
+    }
+
+}
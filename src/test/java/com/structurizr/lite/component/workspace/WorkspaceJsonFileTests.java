@@ -0,0 +1,79 @@
+package com.structurizr.lite.component.workspace;
+
+import com.structurizr.Workspace;
+import com.structurizr.util.WorkspaceUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WorkspaceJsonFileTests {
+
+    private File directory;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        directory = Files.createTempDirectory(Paths.get("build"), getClass().getSimpleName()).toFile();
+    }
+
+    @AfterEach
+    void tearDown() {
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Test
+    void find_ReturnsTheMostRecentlyWrittenFile() throws Exception {
+        File jsonFile = new File(directory, "workspace.json");
+        File compressedJsonFile = new File(directory, "workspace.json.gz");
+
+        assertEquals(jsonFile, WorkspaceJsonFile.find(directory, "workspace"));
+
+        Files.writeString(jsonFile.toPath(), "{}");
+        assertEquals(jsonFile, WorkspaceJsonFile.find(directory, "workspace"));
+
+        Files.write(compressedJsonFile.toPath(), WorkspaceJsonFile.encode(compressedJsonFile, "{}".getBytes(StandardCharsets.UTF_8)));
+        compressedJsonFile.setLastModified(jsonFile.lastModified() + 1000);
+        assertEquals(compressedJsonFile, WorkspaceJsonFile.find(directory, "workspace"));
+
+        jsonFile.setLastModified(compressedJsonFile.lastModified() + 1000);
+        assertEquals(jsonFile, WorkspaceJsonFile.find(directory, "workspace"));
+    }
+
+    @Test
+    void load_ReadsCompressedFiles() throws Exception {
+        File compressedJsonFile = WorkspaceJsonFile.get(directory, "workspace", WorkspaceJsonFile.COMPRESSION_GZIP);
+        assertEquals("workspace.json.gz", compressedJsonFile.getName());
+
+        Workspace workspace = new Workspace("Name", "Description");
+        byte[] json = WorkspaceUtils.toJson(workspace, false).getBytes(StandardCharsets.UTF_8);
+        Files.write(compressedJsonFile.toPath(), WorkspaceJsonFile.encode(compressedJsonFile, json));
+
+        assertEquals("Name", WorkspaceJsonFile.load(compressedJsonFile).getName());
+        assertEquals("Name", new WorkspaceMetaDataReader().read(1, compressedJsonFile).getName());
+    }
+
+    @Test
+    void deleteSuperseded_DeletesTheOtherFormOfTheFile() throws Exception {
+        File jsonFile = new File(directory, "workspace.json");
+        File compressedJsonFile = new File(directory, "workspace.json.gz");
+        Files.writeString(jsonFile.toPath(), "{}");
+        Files.write(compressedJsonFile.toPath(), WorkspaceJsonFile.encode(compressedJsonFile, "{}".getBytes(StandardCharsets.UTF_8)));
+
+        WorkspaceJsonFile.deleteSuperseded(compressedJsonFile);
+        assertFalse(jsonFile.exists());
+        assertTrue(compressedJsonFile.exists());
+
+        Files.writeString(jsonFile.toPath(), "{}");
+        WorkspaceJsonFile.deleteSuperseded(jsonFile);
+        assertTrue(jsonFile.exists());
+        assertFalse(compressedJsonFile.exists());
+    }
+
+}
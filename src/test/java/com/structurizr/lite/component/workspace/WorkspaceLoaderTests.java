@@ -0,0 +1,63 @@
+package com.structurizr.lite.component.workspace;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WorkspaceLoaderTests {
+
+    @Test
+    void load_ReturnsTheResultsInTheOrderOfTheWorkspaceIds() {
+        WorkspaceLoader workspaceLoader = new WorkspaceLoader("workspace-loader", 4);
+        try {
+            List<String> results = workspaceLoader.load(List.of(3L, 1L, 2L), id -> {
+                Thread.sleep(id * 10);
+                return "Workspace " + id;
+            });
+
+            assertEquals(List.of("Workspace 3", "Workspace 1", "Workspace 2"), results);
+        } finally {
+            workspaceLoader.stop();
+        }
+    }
+
+    @Test
+    void load_IgnoresWorkspacesThatFail() {
+        WorkspaceLoader workspaceLoader = new WorkspaceLoader("workspace-loader", 2);
+        try {
+            List<Long> results = workspaceLoader.load(List.of(1L, 2L, 3L), id -> {
+                if (id == 2) {
+                    throw new WorkspaceComponentException("workspace.dsl: Unexpected tokens");
+                }
+
+                return id;
+            });
+
+            assertEquals(List.of(1L, 3L), results);
+        } finally {
+            workspaceLoader.stop();
+        }
+    }
+
+    @Test
+    void load_LoadsWorkspacesInParallel() {
+        WorkspaceLoader workspaceLoader = new WorkspaceLoader("workspace-loader", 3);
+        CountDownLatch latch = new CountDownLatch(3);
+        try {
+            // each workspace waits for the others to start loading, which only succeeds if they're loaded in parallel
+            List<Boolean> results = workspaceLoader.load(List.of(1L, 2L, 3L), id -> {
+                latch.countDown();
+                return latch.await(10, TimeUnit.SECONDS);
+            });
+
+            assertEquals(List.of(true, true, true), results);
+        } finally {
+            workspaceLoader.stop();
+        }
+    }
+
+}
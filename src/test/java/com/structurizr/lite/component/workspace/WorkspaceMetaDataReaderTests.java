@@ -0,0 +1,90 @@
+package com.structurizr.lite.component.workspace;
+
+import com.structurizr.lite.domain.WorkspaceMetaData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WorkspaceMetaDataReaderTests {
+
+    private File directory;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        directory = Files.createTempDirectory(Paths.get("build"), getClass().getSimpleName()).toFile();
+    }
+
+    @AfterEach
+    void tearDown() {
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Test
+    void read_ReadsTheTopLevelProperties() throws Exception {
+        File jsonFile = new File(directory, "workspace.json");
+        Files.writeString(jsonFile.toPath(), """
+                {
+                  "id" : 0,
+                  "name" : "Name",
+                  "description" : "Description",
+                  "lastModifiedDate" : "2009-02-13T23:31:30Z",
+                  "model" : { "softwareSystems" : [ { "id" : "1", "name" : "Software System" } ] },
+                  "views" : { }
+                }""");
+
+        WorkspaceMetaData workspaceMetaData = new WorkspaceMetaDataReader().read(1, jsonFile);
+        assertEquals(1, workspaceMetaData.getId());
+        assertEquals("Name", workspaceMetaData.getName());
+        assertEquals("Description", workspaceMetaData.getDescription());
+        assertEquals(new Date(1234567890000L), workspaceMetaData.getLastModifiedDate());
+        assertEquals(jsonFile.length(), workspaceMetaData.getSize());
+    }
+
+    @Test
+    void read_ReportsTheSizeOfTheJson_WhenTheFileIsCompressed() throws Exception {
+        File jsonFile = new File(directory, "workspace.json.gz");
+        byte[] json = "{ \"name\" : \"Name\", \"description\" : \"Description\", \"lastModifiedDate\" : \"2009-02-13T23:31:30Z\" }".getBytes(StandardCharsets.UTF_8);
+        Files.write(jsonFile.toPath(), WorkspaceJsonFile.encode(jsonFile, json));
+
+        WorkspaceMetaData workspaceMetaData = new WorkspaceMetaDataReader().read(1, jsonFile);
+        assertEquals("Name", workspaceMetaData.getName());
+        assertEquals(json.length, workspaceMetaData.getSize());
+    }
+
+    @Test
+    void read_StopsAtTheModel_WhenThereIsNoDescription() throws Exception {
+        File jsonFile = new File(directory, "workspace.json");
+        Files.writeString(jsonFile.toPath(), """
+                {
+                  "name" : "Name",
+                  "lastModifiedDate" : "2009-02-13T23:31:30Z",
+                  "model" : { "truncated" """);
+
+        WorkspaceMetaData workspaceMetaData = new WorkspaceMetaDataReader().read(1, jsonFile);
+        assertEquals("Name", workspaceMetaData.getName());
+        assertEquals("", workspaceMetaData.getDescription());
+    }
+
+    @Test
+    void read_ThrowsAnException_WhenThereIsNoName() throws Exception {
+        File jsonFile = new File(directory, "workspace.json");
+        Files.writeString(jsonFile.toPath(), "{ \"description\" : \"Description\" }");
+
+        try {
+            new WorkspaceMetaDataReader().read(1, jsonFile);
+            fail();
+        } catch (Exception e) {
+            assertEquals("workspace.json does not contain a workspace name", e.getMessage());
+        }
+    }
+
+}
@@ -0,0 +1,53 @@
+package com.structurizr.lite.component.workspace;
+
+import com.structurizr.Workspace;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WorkspaceSnapshotStoreTests {
+
+    private File directory;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        directory = Files.createTempDirectory(Paths.get("build"), getClass().getSimpleName()).toFile();
+    }
+
+    @AfterEach
+    void tearDown() {
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Test
+    void load_ReturnsTheSnapshot_WhenTheInputsAreUnchanged() throws Exception {
+        Workspace workspace = new Workspace("Name", "Description");
+        workspace.getModel().addPerson("User");
+
+        new WorkspaceSnapshotStore(directory, "1.0.0", "2025.1").save(1, "hash", "framework", workspace);
+
+        workspace = new WorkspaceSnapshotStore(directory, "1.0.0", "2025.1").load(1, "hash", "framework");
+        assertEquals(1, workspace.getId());
+        assertEquals("Name", workspace.getName());
+        assertNotNull(workspace.getModel().getPersonWithName("User"));
+    }
+
+    @Test
+    void load_ReturnsNull_WhenTheInputsHaveChanged() throws Exception {
+        new WorkspaceSnapshotStore(directory, "1.0.0", "2025.1").save(1, "hash", "framework", new Workspace("Name", "Description"));
+
+        assertNull(new WorkspaceSnapshotStore(directory, "1.0.0", "2025.1").load(1, "new-hash", "framework"));
+        assertNull(new WorkspaceSnapshotStore(directory, "2.0.0", "2025.1").load(1, "hash", "framework"));
+        assertNull(new WorkspaceSnapshotStore(directory, "1.0.0", "2025.2").load(1, "hash", "framework"));
+        assertNull(new WorkspaceSnapshotStore(directory, "1.0.0", "2025.1").load(1, "hash", "new-framework"));
+        assertNull(new WorkspaceSnapshotStore(directory, "1.0.0", "2025.1").load(2, "hash", "framework"));
+    }
+
+}
@@ -0,0 +1,134 @@
+package com.structurizr.lite.component.workspace;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WorkspaceSourceScannerTests {
+
+    private File directory;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        directory = Files.createTempDirectory(Paths.get("build"), getClass().getSimpleName()).toFile();
+    }
+
+    @AfterEach
+    void tearDown() {
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Test
+    void scan_ReturnsTheSameHash_WhenNothingHasChanged() throws Exception {
+        File dslFile = write(directory, "workspace.dsl", "workspace {\n    !include model.dsl\n}");
+        write(directory, "model.dsl", "model {\n}");
+
+        WorkspaceSourceScanner scanner = new WorkspaceSourceScanner();
+        WorkspaceSource first = scanner.scan(dslFile);
+        WorkspaceSource second = scanner.scan(dslFile);
+
+        assertEquals(first.getHash(), second.getHash());
+        assertEquals(dslFile.length() + new File(directory, "model.dsl").length(), first.getSize());
+    }
+
+    @Test
+    void scan_ReturnsADifferentHash_WhenAnIncludedFileChanges() throws Exception {
+        File dslFile = write(directory, "workspace.dsl", "workspace {\n    !include \"model.dsl\"\n}");
+        write(directory, "model.dsl", "model {\n    !include people.dsl\n}");
+        write(directory, "people.dsl", "user = person \"User\"");
+
+        WorkspaceSourceScanner scanner = new WorkspaceSourceScanner();
+        String hash = scanner.scan(dslFile).getHash();
+
+        write(directory, "people.dsl", "user = person \"A different user\"");
+        assertNotEquals(hash, scanner.scan(dslFile).getHash());
+    }
+
+    @Test
+    void scan_ReturnsADifferentHash_WhenTheParametersChange() throws Exception {
+        File dslFile = write(directory, "workspace.dsl", "workspace {\n}");
+
+        WorkspaceSourceScanner scanner = new WorkspaceSourceScanner();
+        assertNotEquals(scanner.scan(dslFile, "a=true").getHash(), scanner.scan(dslFile, "a=false").getHash());
+    }
+
+    @Test
+    void scan_ReturnsNull_WhenTheWorkspaceIncludesRemoteContent() throws Exception {
+        File dslFile = write(directory, "workspace.dsl", "workspace {\n    !include https://example.com/model.dsl\n}");
+
+        assertNull(new WorkspaceSourceScanner().scan(dslFile));
+    }
+
+    @Test
+    void scan_IgnoresIncludesInComments() throws Exception {
+        File dslFile = write(directory, "workspace.dsl", "workspace {\n    /*\n    !include https://example.com/model.dsl\n    */\n}");
+
+        assertNotNull(new WorkspaceSourceScanner().scan(dslFile));
+    }
+
+    @Test
+    void scan_FollowsWorkspaceExtendsAndLocalThemes() throws Exception {
+        File dslFile = write(directory, "workspace.dsl", "workspace extends base.dsl {\n    views {\n        themes default theme.json https://example.com/theme.json\n    }\n}");
+        write(directory, "base.dsl", "workspace {\n}");
+        write(directory, "theme.json", "{}");
+
+        WorkspaceSourceScanner scanner = new WorkspaceSourceScanner();
+        WorkspaceSource source = scanner.scan(dslFile);
+        assertEquals(dslFile.length() + new File(directory, "base.dsl").length() + new File(directory, "theme.json").length(), source.getSize());
+
+        write(directory, "base.dsl", "workspace \"Base\" {\n}");
+        String hash = scanner.scan(dslFile).getHash();
+        assertNotEquals(source.getHash(), hash);
+
+        write(directory, "theme.json", "{ \"elements\": [] }");
+        assertNotEquals(hash, scanner.scan(dslFile).getHash());
+    }
+
+    @Test
+    void scan_ReturnsADifferentHash_WhenADecisionChanges() throws Exception {
+        File dslFile = write(directory, "workspace.dsl", "workspace {\n    !decisions decisions\n}");
+        File decisionsDirectory = new File(directory, "decisions");
+        assertTrue(decisionsDirectory.mkdir());
+        write(decisionsDirectory, "0001-record-architecture-decisions.md", "# 1. Record architecture decisions");
+
+        WorkspaceSourceScanner scanner = new WorkspaceSourceScanner();
+        String hash = scanner.scan(dslFile).getHash();
+
+        write(decisionsDirectory, "0001-record-architecture-decisions.md", "# 1. Record architecture decisions\n\nAccepted");
+        assertNotEquals(hash, scanner.scan(dslFile).getHash());
+    }
+
+    @Test
+    void scan_MatchesDirectivesCaseInsensitively() throws Exception {
+        File dslFile = write(directory, "workspace.dsl", "workspace {\n    !INCLUDE model.dsl\n}");
+        write(directory, "model.dsl", "model {\n}");
+
+        WorkspaceSourceScanner scanner = new WorkspaceSourceScanner();
+        String hash = scanner.scan(dslFile).getHash();
+
+        write(directory, "model.dsl", "model {\n    user = person \"User\"\n}");
+        assertNotEquals(hash, scanner.scan(dslFile).getHash());
+    }
+
+    @Test
+    void scan_ReturnsNull_WhenAReferenceCannotBeResolved() throws Exception {
+        assertNull(new WorkspaceSourceScanner().scan(write(directory, "missing.dsl", "workspace {\n    !include model.dsl\n}")));
+        assertNull(new WorkspaceSourceScanner().scan(write(directory, "variable.dsl", "workspace {\n    !include ${MODEL}\n}")));
+        assertNull(new WorkspaceSourceScanner().scan(write(directory, "extends.dsl", "workspace extends https://example.com/workspace.dsl {\n}")));
+    }
+
+    private File write(File directory, String filename, String content) throws Exception {
+        File file = new File(directory, filename);
+        Files.writeString(file.toPath(), content);
+
+        return file;
+    }
+
+}
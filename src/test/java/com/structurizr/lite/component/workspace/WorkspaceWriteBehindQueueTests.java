@@ -0,0 +1,186 @@
+package com.structurizr.lite.component.workspace;
+
+import com.structurizr.Workspace;
+import com.structurizr.util.WorkspaceUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WorkspaceWriteBehindQueueTests {
+
+    private File directory;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        directory = Files.createTempDirectory(Paths.get("build"), getClass().getSimpleName()).toFile();
+    }
+
+    @AfterEach
+    void tearDown() {
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Test
+    void put_CoalescesSavesOfTheSameWorkspace() throws Exception {
+        File jsonFile = new File(directory, "workspace.json");
+        List<String> written = new ArrayList<>();
+        WorkspaceWriteBehindQueue queue = new WorkspaceWriteBehindQueue(directory, id -> jsonFile, (workspace, file, contentHash) -> written.add(workspace.getName()));
+        queue.start();
+
+        queue.put(createWorkspace("Name 1"), "hash1");
+        queue.put(createWorkspace("Name 2"), "hash2");
+        assertFalse(jsonFile.exists());
+        assertEquals("Name 2", WorkspaceUtils.fromJson(queue.getPendingJson(1)).getName());
+
+        queue.stop();
+        assertEquals("Name 2", WorkspaceUtils.loadWorkspaceFromJson(jsonFile).getName());
+        assertEquals(List.of("Name 2"), written);
+        assertNull(queue.getPendingJson(1));
+        assertEquals(0, new File(directory, "workspaces.journal").length());
+    }
+
+    @Test
+    void start_ReplaysTheJournal() throws Exception {
+        File jsonFile = new File(directory, "workspace.json");
+        WorkspaceWriteBehindQueue queue = new WorkspaceWriteBehindQueue(directory, id -> jsonFile, (workspace, file, contentHash) -> {});
+        queue.start();
+        queue.put(createWorkspace("Name 1"), "hash1");
+        queue.put(createWorkspace("Name 2"), "hash2");
+
+        // simulate a crash before the JSON file has been written
+        assertFalse(jsonFile.exists());
+        queue = new WorkspaceWriteBehindQueue(directory, id -> jsonFile, (workspace, file, contentHash) -> {});
+        queue.start();
+
+        assertEquals("Name 2", WorkspaceUtils.loadWorkspaceFromJson(jsonFile).getName());
+        queue.stop();
+    }
+
+    @Test
+    void put_StillWorks_AfterASavingThreadHasBeenInterrupted() throws Exception {
+        File jsonFile = new File(directory, "workspace.json");
+        WorkspaceWriteBehindQueue queue = new WorkspaceWriteBehindQueue(directory, id -> jsonFile, (workspace, file, contentHash) -> {});
+        queue.start();
+
+        // e.g. a bulk load cancelled with Future.cancel(true)
+        Thread thread = new Thread(() -> {
+            Thread.currentThread().interrupt();
+            try {
+                queue.put(createWorkspace("Name 1"), "hash1");
+            } catch (Exception e) {
+                // ignore
+            }
+        });
+        thread.start();
+        thread.join();
+
+        queue.put(createWorkspace("Name 2"), "hash2");
+        assertEquals("Name 2", WorkspaceUtils.fromJson(queue.getPendingJson(1)).getName());
+
+        queue.stop();
+        assertEquals("Name 2", WorkspaceUtils.loadWorkspaceFromJson(jsonFile).getName());
+    }
+
+    @Test
+    void flush_CompactsTheJournal_WhileOtherSavesArePending() throws Exception {
+        File journalFile = new File(directory, "workspaces.journal");
+        CountDownLatch written = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        WorkspaceWriteBehindQueue queue = new WorkspaceWriteBehindQueue(directory, id -> {
+            if (id == 1) {
+                // hold workspace 1 back, so that it's still pending when workspace 2 has been written
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return new File(directory, id + ".json");
+        }, (workspace, file, contentHash) -> {
+            if (workspace.getId() == 2) {
+                written.countDown();
+            }
+        });
+        queue.start();
+
+        queue.put(createWorkspace(2, "Name"), "hash");
+        for (int i = 0; i < 10; i++) {
+            queue.put(createWorkspace(1, "Name " + i), "hash" + i);
+        }
+        long journalLength = journalFile.length();
+
+        try {
+            assertTrue(written.await(10, TimeUnit.SECONDS));
+
+            // only the latest save of workspace 1 remains
+            assertTrue(journalFile.length() < journalLength / 5);
+        } finally {
+            release.countDown();
+            queue.stop();
+        }
+        assertEquals("Name 9", WorkspaceUtils.loadWorkspaceFromJson(new File(directory, "1.json")).getName());
+    }
+
+    @Test
+    void put_ThrowsException_WhenTheQueueHasBeenStopped() throws Exception {
+        File jsonFile = new File(directory, "workspace.json");
+        WorkspaceWriteBehindQueue queue = new WorkspaceWriteBehindQueue(directory, id -> jsonFile, (workspace, file, contentHash) -> {});
+        queue.start();
+        queue.stop();
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> queue.put(createWorkspace("Name"), "hash"));
+        assertEquals("The workspace write-behind queue is not running", e.getMessage());
+    }
+
+    @Test
+    void flush_RetriesAFailedWrite() throws Exception {
+        File jsonFile = new File(directory, "workspace.json");
+
+        // a non-empty directory can't be replaced by the workspace JSON file
+        assertTrue(new File(jsonFile, "file.txt").mkdirs());
+
+        CountDownLatch written = new CountDownLatch(1);
+        WorkspaceWriteBehindQueue queue = new WorkspaceWriteBehindQueue(directory, id -> jsonFile, (workspace, file, contentHash) -> written.countDown());
+        queue.start();
+
+        try {
+            queue.put(createWorkspace("Name"), "hash");
+            Thread.sleep(1500);
+            assertFalse(jsonFile.isFile());
+            assertNull(queue.getWriteError(1));
+            assertEquals("Name", WorkspaceUtils.fromJson(queue.getPendingJson(1)).getName());
+
+            assertTrue(new File(jsonFile, "file.txt").delete());
+            assertTrue(jsonFile.delete());
+
+            assertTrue(written.await(10, TimeUnit.SECONDS));
+        } finally {
+            queue.stop();
+        }
+        assertEquals("Name", WorkspaceUtils.loadWorkspaceFromJson(jsonFile).getName());
+        assertNull(queue.getPendingJson(1));
+    }
+
+    private Workspace createWorkspace(String name) {
+        return createWorkspace(1, name);
+    }
+
+    private Workspace createWorkspace(long id, String name) {
+        Workspace workspace = new Workspace(name, "Description");
+        workspace.setId(id);
+
+        return workspace;
+    }
+
+}
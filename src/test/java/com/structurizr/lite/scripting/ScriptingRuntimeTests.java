@@ -0,0 +1,71 @@
+package com.structurizr.lite.scripting;
+
+import com.structurizr.lite.Configuration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.FileSystemUtils;
+
+import javax.script.Bindings;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineManager;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ScriptingRuntimeTests {
+
+    private File directory;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        directory = Files.createTempDirectory(Paths.get("build"), getClass().getSimpleName()).toFile();
+        Configuration.init(directory);
+    }
+
+    @AfterEach
+    void tearDown() {
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Test
+    void getEngineByExtension_LoadsTheRuntimeInAnIsolatedClassLoader() throws Exception {
+        File workDirectory = new File(directory, ".structurizr");
+
+        ScriptEngine scriptEngine = new ScriptEngineManager().getEngineByExtension("groovy");
+
+        assertTrue(ScriptingRuntime.GROOVY.isLoaded());
+        assertEquals(2, ((Number)scriptEngine.eval("1 + 1")).intValue());
+        assertSame(ScriptingRuntime.GROOVY.getClassLoader(), ScriptingRuntime.GROOVY.createScriptEngine().getClass().getClassLoader());
+        assertTrue(new File(workDirectory, "scripting/groovy").listFiles().length > 0);
+
+        // the runtimes aren't on the classpath
+        assertThrows(ClassNotFoundException.class, () -> Class.forName("groovy.lang.GroovyShell"));
+    }
+
+    @Test
+    void eval_ReusesThePooledScriptEngine() throws Exception {
+        new ScriptEngineManager().getEngineByExtension("groovy").eval("1 + 1");
+        ScriptEngine pooledScriptEngine = ScriptingRuntime.GROOVY.borrowScriptEngine();
+        ScriptingRuntime.GROOVY.returnScriptEngine(pooledScriptEngine);
+
+        ScriptEngine scriptEngine = new ScriptEngineManager().getEngineByExtension("groovy");
+        Bindings bindings = scriptEngine.createBindings();
+        bindings.put("name", "World");
+        assertEquals("Hello World", scriptEngine.eval("'Hello ' + name", bindings));
+
+        // the second evaluation used (and returned) the same engine, rather than creating a new one
+        assertSame(pooledScriptEngine, ScriptingRuntime.GROOVY.borrowScriptEngine());
+    }
+
+    @Test
+    void getEngineByExtension_DoesNotLoadOtherRuntimes() throws Exception {
+        new ScriptEngineManager().getEngineByExtension("groovy");
+        new ScriptEngineManager().getEngineByName("groovy");
+
+        assertFalse(ScriptingRuntime.JRUBY.isLoaded());
+    }
+
+}
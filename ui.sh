@@ -49,9 +49,12 @@ cp -a $STRUCTURIZR_UI_DIR/src/bootstrap-icons/* $STRUCTURIZR_LITE_DIR/src/main/r
 mkdir -p $STRUCTURIZR_LITE_DIR/src/main/resources/static/static/html
 cp $STRUCTURIZR_UI_DIR/src/html/* $STRUCTURIZR_LITE_DIR/src/main/resources/static/static/html
 
-# JSP fragments
+# JSP fragments (auto-refresh.jspf is Lite-owned, because it polls per workspace)
+export AUTO_REFRESH_JSPF=$(mktemp)
+cp $STRUCTURIZR_LITE_DIR/src/main/webapp/WEB-INF/fragments/workspace/auto-refresh.jspf $AUTO_REFRESH_JSPF
 cp -a $STRUCTURIZR_UI_DIR/src/fragments/* $STRUCTURIZR_LITE_DIR/src/main/webapp/WEB-INF/fragments
 rm -rf $STRUCTURIZR_LITE_DIR/src/main/webapp/WEB-INF/fragments/dsl
+mv $AUTO_REFRESH_JSPF $STRUCTURIZR_LITE_DIR/src/main/webapp/WEB-INF/fragments/workspace/auto-refresh.jspf
 
 # JSP
 cp -a $STRUCTURIZR_UI_DIR/src/jsp/* $STRUCTURIZR_LITE_DIR/src/main/webapp/WEB-INF/jsp